@@ -0,0 +1,155 @@
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.event.WindowStateListener;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.swing.*;
+
+/**
+ * One clock for all of a window's animations (EDT only):
+ * - Animated components register once; each tick advances only the ones that are showing in a
+ *   window that isn't iconified, and repaints only those that report they look different
+ * - Animations are driven by elapsed time, so the frame rate can change without changing speed
+ * - The frame rate adapts: ticks that repaint nothing, or that fire late because the EDT is busy,
+ *   stretch the period (up to MAX_PERIOD_MS); ticks that repaint shrink it back to BASE_PERIOD_MS
+ * - With nothing to animate (window hidden or iconified, components hidden) the timer stops;
+ *   it starts again when a component is shown or its window is restored
+ */
+public class AnimationClock {
+
+    // 20 fps at most, as the menu always ran; 5 fps when little changes
+    public static final int BASE_PERIOD_MS = 50;
+    private static final int MAX_PERIOD_MS = 200;
+
+    /**
+     * Something the clock moves forward.
+     */
+    public interface Animated {
+        /**
+         * Moves the animation on by elapsedMillis; returns true if it now looks different
+         * (the clock then repaints it).
+         */
+        boolean advance(long elapsedMillis);
+    }
+
+    private final List<JComponent> components = new ArrayList<>();
+    private final Set<Window> watchedWindows = new HashSet<>();
+    private final Timer timer;
+    private int period = BASE_PERIOD_MS;
+    private long lastTick;
+
+    // Any change to whether a component shows may mean there is work again
+    private final HierarchyListener showingListener = e -> {
+        if ((e.getChangeFlags() & (HierarchyEvent.SHOWING_CHANGED | HierarchyEvent.PARENT_CHANGED)) != 0) {
+            wake();
+        }
+    };
+    private final WindowStateListener windowListener = e -> wake();
+
+    public AnimationClock() {
+        timer = new Timer(period, e -> tick());
+        timer.setRepeats(false);
+    }
+
+    public <T extends JComponent & Animated> void register(T component) {
+        components.add(component);
+        component.addHierarchyListener(showingListener);
+        wake();
+    }
+
+    public void unregister(JComponent component) {
+        components.remove(component);
+        component.removeHierarchyListener(showingListener);
+    }
+
+    /**
+     * Stops for good: every component and window listener is removed.
+     */
+    public void stop() {
+        timer.stop();
+        for (JComponent component : components) {
+            component.removeHierarchyListener(showingListener);
+        }
+        components.clear();
+        for (Window window : watchedWindows) {
+            window.removeWindowStateListener(windowListener);
+        }
+        watchedWindows.clear();
+    }
+
+    /**
+     * True while the clock has a tick scheduled.
+     */
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    // Starts ticking if anything registered can be seen
+    private void wake() {
+        if (timer.isRunning() || !anyActive()) {
+            return;
+        }
+        period = BASE_PERIOD_MS;
+        lastTick = System.currentTimeMillis();
+        schedule();
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        long elapsed = now - lastTick;
+        lastTick = now;
+
+        boolean active = false;
+        boolean repainted = false;
+        for (JComponent component : components) {
+            if (isActive(component)) {
+                active = true;
+                if (((Animated) component).advance(elapsed)) {
+                    component.repaint();
+                    repainted = true;
+                }
+            }
+        }
+        if (!active) {
+            // Nothing visible: sleep until a component or window changes
+            return;
+        }
+
+        boolean late = elapsed > 2L * period;
+        if (repainted && !late) {
+            period = Math.max(BASE_PERIOD_MS, period * 9 / 10);
+        } else {
+            period = Math.min(MAX_PERIOD_MS, period * 5 / 4 + 1);
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        timer.setInitialDelay(period);
+        timer.restart();
+    }
+
+    private boolean anyActive() {
+        for (JComponent component : components) {
+            if (isActive(component)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Showing, in a window that isn't minimized (an iconified frame still counts as showing)
+    private boolean isActive(JComponent component) {
+        if (!component.isShowing()) {
+            return false;
+        }
+        Window window = SwingUtilities.getWindowAncestor(component);
+        if (window != null && watchedWindows.add(window)) {
+            window.addWindowStateListener(windowListener);
+        }
+        return !(window instanceof Frame) || (((Frame) window).getExtendedState() & Frame.ICONIFIED) == 0;
+    }
+}
@@ -0,0 +1,335 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Board layout balance tool (command line, no Swing):
+ * - Simulates many games on a layout (PlayoutPolicy players, split over all cores,
+ *   no allocation per game) and reports how often each seat wins, and per cell how often
+ *   it was claimable, how often it was claimed, and by which seat
+ * - Optionally searches for a fairer layout with simulated annealing, minimizing the gap
+ *   between the best and worst seat's win rate. Moves either swap two cells' types or
+ *   change one cell to another type worth the same points: a square scores the same
+ *   wherever it is, so under the current rules only the mix of types changes the odds
+ *   (swaps matter once scoring depends on position)
+ * - Writes the result as a BoardLayout file
+ *
+ * Every evaluation during the search uses the same seeds (common random numbers), so
+ * two layouts are compared on the same dice rather than on noise. The best layout is then
+ * re-measured with fresh seeds and the full game count.
+ *
+ * Usage: java BoardBalance [-board file | -size N] [-players N] [-games N] [-optimize steps]
+ *                          [-search-games N] [-seed N] [-threads N] [-out file]
+ */
+public class BoardBalance {
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        Path boardFile = null;
+        int size = BoardState.STANDARD_SIZE;
+        int players = 2;
+        long games = 1_000_000;
+        int steps = 0;
+        long searchGames = 50_000;
+        long seed = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path out = Paths.get("balanced-board.txt");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-board":
+                    boardFile = Paths.get(args[i + 1]);
+                    break;
+                case "-size":
+                    size = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-players":
+                    players = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-games":
+                    games = Long.parseLong(args[i + 1]);
+                    break;
+                case "-optimize":
+                    steps = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-search-games":
+                    searchGames = Long.parseLong(args[i + 1]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-out":
+                    out = Paths.get(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        BoardLayout layout = boardFile == null ? BoardLayout.forSize(size) : BoardLayout.load(boardFile);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            BoardBalance balance = new BoardBalance(pool, threads, players);
+            long start = System.currentTimeMillis();
+            Stats stats = balance.evaluate(layout, games, seed);
+            System.out.printf("%s, %d players, %,d games in %.1fs%n",
+                    boardFile != null ? boardFile : size == BoardState.STANDARD_SIZE ? "Standard board"
+                            : size + "x" + size + " board", players, games,
+                    (System.currentTimeMillis() - start) / 1000.0);
+            stats.print(layout);
+
+            if (steps > 0) {
+                BoardLayout best = balance.optimize(layout, steps, searchGames, seed);
+                Stats bestStats = balance.evaluate(best, games, new SplittableRandom(seed).nextLong());
+                System.out.printf("%nOptimized layout (%,d fresh games):%n", games);
+                bestStats.print(best);
+                best.save(out,
+                        "Generated by BoardBalance (" + players + " players, " + steps + " steps, seed " + seed + ")",
+                        String.format("Seat win rates %s, advantage %.2f%% (starting layout: %.2f%%)",
+                                bestStats.winRates(), 100 * bestStats.advantage(), 100 * stats.advantage()));
+                System.out.println("Wrote " + out);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private final ExecutorService pool;
+    private final int threads;
+    private final int players;
+
+    public BoardBalance(ExecutorService pool, int threads, int players) {
+        this.pool = pool;
+        this.threads = Math.max(1, threads);
+        this.players = players;
+    }
+
+    /**
+     * Plays games on layout, split evenly over the threads. The same seed gives the same dice.
+     */
+    public Stats evaluate(BoardLayout layout, long games, long seed) throws InterruptedException, ExecutionException {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<Future<Stats>> parts = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long count = games / threads + (t < games % threads ? 1 : 0);
+            SplittableRandom random = seeds.split();
+            parts.add(pool.submit(() -> new Simulator(layout, players).play(count, random)));
+        }
+        Stats total = new Stats(players, layout.getCellCount());
+        for (Future<Stats> part : parts) {
+            total.merge(part.get());
+        }
+        return total;
+    }
+
+    /**
+     * Simulated annealing over swaps and same-points retypes (the board's point total never
+     * changes). Returns the fairest layout seen.
+     */
+    public BoardLayout optimize(BoardLayout start, int steps, long gamesPerStep, long seed)
+            throws InterruptedException, ExecutionException {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x9E3779B97F4A7C15L);
+        long evalSeed = seed;
+        BoardLayout current = start;
+        double currentScore = evaluate(current, gamesPerStep, evalSeed).advantage();
+        BoardLayout best = current;
+        double bestScore = currentScore;
+        // About one standard error of a measured advantage: worse layouts are accepted early on
+        // only when the difference could be noise
+        double startTemperature = 1 / Math.sqrt(gamesPerStep);
+
+        for (int step = 1; step <= steps; step++) {
+            BoardLayout candidate = neighbour(current, random);
+            if (candidate == null) {
+                continue;
+            }
+            double score = evaluate(candidate, gamesPerStep, evalSeed).advantage();
+            double temperature = startTemperature * (1 - (double) step / steps) + 1e-6;
+            if (score <= currentScore || random.nextDouble() < Math.exp((currentScore - score) / temperature)) {
+                current = candidate;
+                currentScore = score;
+                if (score < bestScore) {
+                    best = candidate;
+                    bestScore = score;
+                }
+            }
+            if (step % 50 == 0 || step == steps) {
+                System.out.printf("step %d: current %.2f%%, best %.2f%%%n", step, 100 * currentScore, 100 * bestScore);
+            }
+        }
+        return best;
+    }
+
+    private static BoardLayout neighbour(BoardLayout layout, SplittableRandom random) {
+        int a = random.nextInt(layout.getCellCount());
+        if (random.nextBoolean()) {
+            int b = random.nextInt(layout.getCellCount());
+            return layout.getType(a) == layout.getType(b) ? null : layout.withSwap(a, b);
+        }
+        SquareType from = layout.getType(a);
+        SquareType to = SquareType.byOrdinal(random.nextInt(SquareType.count()));
+        return to == from || to.getPoints() != from.getPoints() ? null : layout.withType(a, to);
+    }
+
+    // -------------------- Simulation --------------------
+
+    /**
+     * One thread's games; everything is allocated once, up front.
+     */
+    private static final class Simulator {
+        final GameState state;
+        final int players;
+        final int cells;
+        final int[] dice = new int[6];
+        final long[] legal;
+
+        Simulator(BoardLayout layout, int players) {
+            this.state = new GameState(layout.newBoard(players), GameState.DEFAULT_STONES);
+            this.players = players;
+            this.cells = layout.getCellCount();
+            this.legal = state.getBoard().newCellSet();
+        }
+
+        Stats play(long games, SplittableRandom random) {
+            Stats stats = new Stats(players, cells);
+            BoardState board = state.getBoard();
+            for (long g = 0; g < games; g++) {
+                state.reset();
+                for (int turn = 0; turn < 1000 && !state.isGameOver(); turn++) {
+                    int seat = state.getCurrentPlayer();
+                    boolean canPlace = PlayoutPolicy.rollTurn(board, random, dice, legal);
+                    stats.turns[seat]++;
+                    for (int cell = CellBits.next(legal, 0); cell >= 0; cell = CellBits.next(legal, cell + 1)) {
+                        stats.claimable[seat * cells + cell]++;
+                    }
+                    if (canPlace) {
+                        int cell = PlayoutPolicy.pickCell(board, legal, random, 0);
+                        state.placeStone(cell);
+                        stats.claimed[seat * cells + cell]++;
+                    }
+                    state.nextPlayer();
+                }
+                stats.record(state);
+            }
+            return stats;
+        }
+    }
+
+    // -------------------- Results --------------------
+
+    public static final class Stats {
+        final int players;
+        final int cells;
+        final long[] wins;
+        final long[] scoreSums;
+        final long[] turns;
+        final long[] claimable; // [seat * cells + cell]: turns in which seat could take cell
+        final long[] claimed;   // [seat * cells + cell]: games in which seat took cell
+        long games;
+        long draws;
+
+        Stats(int players, int cells) {
+            this.players = players;
+            this.cells = cells;
+            this.wins = new long[players];
+            this.scoreSums = new long[players];
+            this.turns = new long[players];
+            this.claimable = new long[players * cells];
+            this.claimed = new long[players * cells];
+        }
+
+        void record(GameState end) {
+            int top = Integer.MIN_VALUE;
+            int winner = -1;
+            for (int p = 0; p < players; p++) {
+                int score = end.getScore(p);
+                scoreSums[p] += score;
+                if (score > top) {
+                    top = score;
+                    winner = p;
+                } else if (score == top) {
+                    winner = -1;
+                }
+            }
+            if (winner < 0) {
+                draws++;
+            } else {
+                wins[winner]++;
+            }
+            games++;
+        }
+
+        void merge(Stats other) {
+            for (int p = 0; p < players; p++) {
+                wins[p] += other.wins[p];
+                scoreSums[p] += other.scoreSums[p];
+                turns[p] += other.turns[p];
+            }
+            for (int i = 0; i < claimable.length; i++) {
+                claimable[i] += other.claimable[i];
+                claimed[i] += other.claimed[i];
+            }
+            games += other.games;
+            draws += other.draws;
+        }
+
+        /**
+         * Best seat's win rate minus the worst seat's (0 = perfectly fair).
+         */
+        public double advantage() {
+            long most = Long.MIN_VALUE;
+            long least = Long.MAX_VALUE;
+            for (long w : wins) {
+                most = Math.max(most, w);
+                least = Math.min(least, w);
+            }
+            return games == 0 ? 0 : (double) (most - least) / games;
+        }
+
+        String winRates() {
+            StringBuilder text = new StringBuilder();
+            for (int p = 0; p < players; p++) {
+                text.append(p == 0 ? "" : " / ").append(String.format("%.2f%%", 100.0 * wins[p] / games));
+            }
+            return text.toString();
+        }
+
+        void print(BoardLayout layout) {
+            System.out.printf("Seat win rates: %s, draws %.2f%%, advantage %.2f%%%n",
+                    winRates(), 100.0 * draws / games, 100 * advantage());
+            for (int p = 0; p < players; p++) {
+                System.out.printf("Seat %d mean score %.2f%n", p + 1, (double) scoreSums[p] / games);
+            }
+            long allTurns = 0;
+            for (long t : turns) {
+                allTurns += t;
+            }
+            int size = layout.getSize();
+            System.out.println("\nPer cell: type, % of turns claimable, % of games claimed, seat 1's share of claims");
+            for (int row = 0; row < size; row++) {
+                StringBuilder line = new StringBuilder();
+                for (int col = 0; col < size; col++) {
+                    int cell = row * size + col;
+                    long canTake = 0;
+                    long taken = 0;
+                    for (int p = 0; p < players; p++) {
+                        canTake += claimable[p * cells + cell];
+                        taken += claimed[p * cells + cell];
+                    }
+                    line.append(String.format("%-8s %3.0f %3.0f %3.0f | ", layout.getType(cell).getLabel(),
+                            100.0 * canTake / Math.max(1, allTurns), 100.0 * taken / Math.max(1, games),
+                            100.0 * claimed[cell] / Math.max(1, taken)));
+                }
+                System.out.println(line);
+            }
+        }
+    }
+}
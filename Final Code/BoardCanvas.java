@@ -0,0 +1,274 @@
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.function.IntConsumer;
+import javax.swing.*;
+
+/**
+ * The game board as one custom-painted component (no child components, so nothing to lay out):
+ * - The squares (color by points, outline, type label) are drawn once into a cached image,
+ *   along with a copy with every square highlighted; both are redrawn only when the square
+ *   size or the color-blind mode changes
+ * - paintComponent copies the cells inside the clip from one image or the other, then draws
+ *   the hint text and the stone on top (committed stones come from BoardState, plus this
+ *   turn's tentative stone)
+ * - Changing highlights, the tentative stone or a hint repaints only the cells it touched
+ * - Clicks are mapped to cells here; clicks on the gaps between squares are ignored
+ */
+@SuppressWarnings("serial") // never serialized
+public class BoardCanvas extends JComponent {
+
+    private static final int MARGIN = 10;
+    private static final int GAP = 2;
+
+    // Colors for squares worth 1, 2 and 3+ points, and for valid moves
+    static final Color[] SQUARE_COLORS = { Color.WHITE, new Color(255, 182, 193), new Color(255, 105, 180) };
+    static final Color HIGHLIGHT = Color.GREEN.brighter();
+
+    private final BoardState board;
+    private final int boardSize;
+    private final Color[] playerColors;
+    private IntConsumer cellListener;
+
+    // What is on screen right now
+    private final long[] highlighted;
+    private final String[] hints;
+    private int pendingCell = -1;
+    private Color pendingColor;
+
+    // Geometry for the current component size (see updateGeometry)
+    private int cellPixels;
+    private int originX;
+    private int originY;
+
+    // The squares drawn at imagePixels per cell in imageMode
+    private BufferedImage plainImage;
+    private BufferedImage highlightImage;
+    private int imagePixels;
+    private DisplaySettings.ColorBlindnessFilter.Mode imageMode;
+    private Font hintFont;
+
+    public BoardCanvas(BoardState board, Color[] playerColors) {
+        this.board = board;
+        this.boardSize = board.getBoardSize();
+        this.playerColors = playerColors;
+        this.highlighted = board.newCellSet();
+        this.hints = new String[board.getCellCount()];
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int cell = cellAt(e.getX(), e.getY());
+                if (cell >= 0 && cellListener != null && SwingUtilities.isLeftMouseButton(e)) {
+                    cellListener.accept(cell);
+                }
+            }
+        });
+    }
+
+    /**
+     * Called with the cell index whenever a square is clicked.
+     */
+    public void setCellListener(IntConsumer listener) {
+        this.cellListener = listener;
+    }
+
+    /**
+     * Makes exactly the cells in cells highlighted; only cells that flipped are repainted.
+     * If the color-blind mode changed since the last paint, the whole board is repainted once.
+     */
+    public void setHighlighted(long[] cells) {
+        if (imageMode != DisplaySettings.ColorBlindnessFilter.getWidgetMode()) {
+            System.arraycopy(cells, 0, highlighted, 0, highlighted.length);
+            repaint();
+            return;
+        }
+        for (int w = 0; w < highlighted.length; w++) {
+            long changed = cells[w] ^ highlighted[w];
+            highlighted[w] = cells[w];
+            while (changed != 0) {
+                repaintCell((w << 6) + Long.numberOfTrailingZeros(changed));
+                changed &= changed - 1;
+            }
+        }
+    }
+
+    /**
+     * The highlighted cells (read-only).
+     */
+    public long[] getHighlighted() {
+        return highlighted;
+    }
+
+    /**
+     * Shows this turn's stone on cell (-1 for none); the cell it left is repainted too,
+     * which also draws a stone that was just committed there.
+     */
+    public void setPendingStone(int cell, Color color) {
+        if (cell == pendingCell && (cell < 0 || color.equals(pendingColor))) {
+            return;
+        }
+        if (pendingCell >= 0) {
+            repaintCell(pendingCell);
+        }
+        pendingCell = cell;
+        pendingColor = color;
+        if (cell >= 0) {
+            repaintCell(cell);
+        }
+    }
+
+    /**
+     * Small text under the square's label (null or "" for none).
+     */
+    public void setHint(int cell, String text) {
+        String hint = text == null || text.isEmpty() ? null : text;
+        if (hint == null ? hints[cell] != null : !hint.equals(hints[cell])) {
+            hints[cell] = hint;
+            repaintCell(cell);
+        }
+    }
+
+    public void clearHints() {
+        for (int cell = 0; cell < hints.length; cell++) {
+            setHint(cell, null);
+        }
+    }
+
+    /**
+     * Repaints one square, e.g. after its stone changed.
+     */
+    public void repaintCell(int cell) {
+        updateGeometry();
+        int pitch = cellPixels + GAP;
+        repaint(originX + cell % boardSize * pitch, originY + cell / boardSize * pitch, cellPixels, cellPixels);
+    }
+
+    /**
+     * The cell under (x, y), or -1 for the margins and the gaps between squares.
+     */
+    public int cellAt(int x, int y) {
+        updateGeometry();
+        int pitch = cellPixels + GAP;
+        int dx = x - originX;
+        int dy = y - originY;
+        if (dx < 0 || dy < 0 || dx % pitch >= cellPixels || dy % pitch >= cellPixels) {
+            return -1;
+        }
+        int col = dx / pitch;
+        int row = dy / pitch;
+        return row < boardSize && col < boardSize ? row * boardSize + col : -1;
+    }
+
+    // -------------------- Painting --------------------
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        updateGeometry();
+        DisplaySettings.ColorBlindnessFilter.Mode mode = DisplaySettings.ColorBlindnessFilter.getWidgetMode();
+        if (plainImage == null || imagePixels != cellPixels || imageMode != mode) {
+            renderSquares(mode);
+        }
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int pitch = cellPixels + GAP;
+        int firstCol = Math.max(0, Math.floorDiv(clip.x - originX, pitch));
+        int lastCol = Math.min(boardSize - 1, Math.floorDiv(clip.x + clip.width - 1 - originX, pitch));
+        int firstRow = Math.max(0, Math.floorDiv(clip.y - originY, pitch));
+        int lastRow = Math.min(boardSize - 1, Math.floorDiv(clip.y + clip.height - 1 - originY, pitch));
+
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setFont(hintFont);
+        FontMetrics hintMetrics = g2d.getFontMetrics();
+        int stone = cellPixels / 2;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int cell = row * boardSize + col;
+                int sx = col * pitch;
+                int sy = row * pitch;
+                int x = originX + sx;
+                int y = originY + sy;
+                BufferedImage source = CellBits.get(highlighted, cell) ? highlightImage : plainImage;
+                g2d.drawImage(source, x, y, x + cellPixels, y + cellPixels,
+                        sx, sy, sx + cellPixels, sy + cellPixels, null);
+
+                if (hints[cell] != null) {
+                    g2d.setColor(Color.BLACK);
+                    g2d.drawString(hints[cell], x + (cellPixels - hintMetrics.stringWidth(hints[cell])) / 2,
+                            y + cellPixels - hintMetrics.getDescent() - 2);
+                }
+
+                int owner = board.getOwner(cell);
+                Color stoneColor = owner >= 0 ? playerColors[owner] : cell == pendingCell ? pendingColor : null;
+                if (stoneColor != null) {
+                    int sx0 = x + (cellPixels - stone) / 2;
+                    int sy0 = y + (cellPixels - stone) / 2;
+                    g2d.setColor(stoneColor);
+                    g2d.fillOval(sx0, sy0, stone, stone);
+                    g2d.setColor(Color.BLACK);
+                    g2d.drawOval(sx0, sy0, stone - 1, stone - 1);
+                }
+            }
+        }
+        g2d.dispose();
+    }
+
+    // Both cached images: every square plain, and every square highlighted
+    private void renderSquares(DisplaySettings.ColorBlindnessFilter.Mode mode) {
+        int pitch = cellPixels + GAP;
+        int pixels = boardSize * pitch;
+        Font labelFont = new Font("Arial", Font.BOLD, Math.max(7, 12 * cellPixels / 80));
+        hintFont = new Font("Arial", Font.PLAIN, Math.max(7, 11 * cellPixels / 80));
+        Color validColor = DisplaySettings.ColorBlindnessFilter.transformColor(HIGHLIGHT);
+        Color[] pointColors = new Color[SQUARE_COLORS.length];
+        for (int i = 0; i < pointColors.length; i++) {
+            pointColors[i] = DisplaySettings.ColorBlindnessFilter.transformColor(SQUARE_COLORS[i]);
+        }
+
+        plainImage = newImage(pixels);
+        highlightImage = newImage(pixels);
+        for (BufferedImage image : new BufferedImage[] { plainImage, highlightImage }) {
+            Graphics2D g2d = image.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setFont(labelFont);
+            FontMetrics metrics = g2d.getFontMetrics();
+            for (int cell = 0; cell < board.getCellCount(); cell++) {
+                int x = cell % boardSize * pitch;
+                int y = cell / boardSize * pitch;
+                SquareType type = board.getSquareType(cell);
+                int points = Math.min(pointColors.length, type.getPoints());
+                g2d.setColor(image == highlightImage ? validColor : pointColors[points - 1]);
+                g2d.fillRect(x, y, cellPixels, cellPixels);
+                g2d.setColor(Color.BLACK);
+                g2d.drawRect(x, y, cellPixels - 1, cellPixels - 1);
+                String label = type.getLabel();
+                g2d.drawString(label, x + (cellPixels - metrics.stringWidth(label)) / 2,
+                        y + (cellPixels - metrics.getHeight()) / 2 + metrics.getAscent());
+            }
+            g2d.dispose();
+        }
+        imagePixels = cellPixels;
+        imageMode = mode;
+    }
+
+    private BufferedImage newImage(int pixels) {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        return config != null ? config.createCompatibleImage(pixels, pixels)
+                : new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_RGB);
+    }
+
+    // Largest square cells that fit, with the board centred
+    private void updateGeometry() {
+        int side = Math.min(getWidth(), getHeight()) - 2 * MARGIN;
+        cellPixels = Math.max(1, (side - GAP * (boardSize - 1)) / boardSize);
+        int boardPixels = cellPixels * boardSize + GAP * (boardSize - 1);
+        originX = (getWidth() - boardPixels) / 2;
+        originY = (getHeight() - boardPixels) / 2;
+    }
+}
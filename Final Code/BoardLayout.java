@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A square board's square types, row by row, and its text file format:
+ *
+ *   # comments and blank lines are ignored
+ *   size 7
+ *   AA/BB ABCDE ≤12 AAA =1,3,5 =2,4,6 AAA
+ *   ...
+ *
+ * Labels are SquareType labels separated by whitespace (any line breaks; one row per line
+ * is just the convention). Files are UTF-8 because of "≤12" and "≥30".
+ */
+public final class BoardLayout {
+
+    public static final int MIN_SIZE = BoardState.STANDARD_SIZE;
+    public static final int MAX_SIZE = 25;
+
+    private final int size;
+    private final SquareType[] types;
+
+    public BoardLayout(int size, SquareType[] types) {
+        if (size <= 0 || types.length != size * size) {
+            throw new IllegalArgumentException("A " + size + "x" + size + " board needs " + size * size
+                    + " square types, got " + types.length);
+        }
+        this.size = size;
+        this.types = types.clone();
+    }
+
+    /**
+     * The standard 7x7 board.
+     */
+    public static BoardLayout standard() {
+        return new BoardLayout(BoardState.STANDARD_SIZE, BoardState.standardLayout());
+    }
+
+    /**
+     * The board for a size picked in the menu: the standard board for 7, else generate(size, size)
+     * (so every size always gets the same board).
+     */
+    public static BoardLayout forSize(int size) {
+        return size == BoardState.STANDARD_SIZE ? standard() : generate(size, size);
+    }
+
+    /**
+     * A size x size board with the standard board's mix of square types, scaled up (largest
+     * remainder rounding, so the counts add up) and shuffled with seed.
+     */
+    public static BoardLayout generate(int size, long seed) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be " + MIN_SIZE + " to " + MAX_SIZE + ", got " + size);
+        }
+        SquareType[] standard = BoardState.standardLayout();
+        int[] counts = new int[SquareType.count()];
+        for (SquareType type : standard) {
+            counts[type.ordinal()]++;
+        }
+        int cells = size * size;
+        int[] scaled = new int[counts.length];
+        long[] remainders = new long[counts.length];
+        int placed = 0;
+        for (int t = 0; t < counts.length; t++) {
+            scaled[t] = counts[t] * cells / standard.length;
+            remainders[t] = (long) counts[t] * cells % standard.length;
+            placed += scaled[t];
+        }
+        for (; placed < cells; placed++) {
+            int largest = 0;
+            for (int t = 1; t < counts.length; t++) {
+                if (remainders[t] > remainders[largest]) {
+                    largest = t;
+                }
+            }
+            scaled[largest]++;
+            remainders[largest] = -1;
+        }
+
+        SquareType[] types = new SquareType[cells];
+        int cell = 0;
+        for (int t = 0; t < scaled.length; t++) {
+            for (int i = 0; i < scaled[t]; i++) {
+                types[cell++] = SquareType.byOrdinal(t);
+            }
+        }
+        // Fisher-Yates
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = cells - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            SquareType swap = types[i];
+            types[i] = types[j];
+            types[j] = swap;
+        }
+        return new BoardLayout(size, types);
+    }
+
+    /**
+     * An empty board using this layout.
+     */
+    public BoardState newBoard(int playerCount) {
+        return new BoardState(size, types, playerCount);
+    }
+
+    /**
+     * This layout with the square types of cells a and b swapped.
+     */
+    public BoardLayout withSwap(int a, int b) {
+        SquareType[] swapped = types.clone();
+        swapped[a] = types[b];
+        swapped[b] = types[a];
+        return new BoardLayout(size, swapped);
+    }
+
+    /**
+     * This layout with cell changed to type.
+     */
+    public BoardLayout withType(int cell, SquareType type) {
+        SquareType[] changed = types.clone();
+        changed[cell] = type;
+        return new BoardLayout(size, changed);
+    }
+
+    // -------------------- File format --------------------
+
+    public static BoardLayout load(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the file format; throws IllegalArgumentException on a malformed layout.
+     */
+    public static BoardLayout parse(List<String> lines) {
+        int size = -1;
+        List<SquareType> types = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = trimmed.split("\\s+");
+            if (size < 0) {
+                if (tokens.length != 2 || !tokens[0].equals("size")) {
+                    throw new IllegalArgumentException("Board file must start with \"size N\", got: " + trimmed);
+                }
+                size = Integer.parseInt(tokens[1]);
+                continue;
+            }
+            for (String token : tokens) {
+                types.add(SquareType.fromLabel(token));
+            }
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("Board file has no \"size N\" line");
+        }
+        return new BoardLayout(size, types.toArray(new SquareType[0]));
+    }
+
+    public void save(Path file, String... comments) throws IOException {
+        Files.write(file, format(comments).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The layout in the file format, with each comment on its own "# " line at the top.
+     */
+    public String format(String... comments) {
+        StringBuilder text = new StringBuilder();
+        for (String comment : comments) {
+            text.append("# ").append(comment).append('\n');
+        }
+        text.append("size ").append(size).append('\n');
+        int width = 0;
+        for (SquareType type : types) {
+            width = Math.max(width, type.getLabel().length());
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                String label = types[row * size + col].getLabel();
+                text.append(label);
+                if (col < size - 1) {
+                    text.append(" ".repeat(width - label.length() + 1));
+                }
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    // -------------------- Getters --------------------
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCellCount() {
+        return types.length;
+    }
+
+    public SquareType getType(int cell) {
+        return types[cell];
+    }
+
+    public SquareType[] getTypes() {
+        return types.clone();
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Headless board model (no Swing), for square boards of any size:
+ * - One long[] bitset per player plus an occupied bitset (see CellBits; bit i = cell i, row-major)
+ * - The square type of each cell as a byte (SquareType ordinal)
+ * - A precomputed cell bitset per square type, so "empty cells this roll can use"
+ *   is a few ANDs/ORs per 64 cells instead of a scan
+ *
+ * Methods that produce a cell set fill a caller-owned long[] (see newCellSet()),
+ * so nothing allocates per query.
+ */
+public class BoardState {
+
+    // The standard 7x7 Kivi board, row by row
+    public static final int STANDARD_SIZE = 7;
+    private static final String[] STANDARD_LABELS = {
+        "AA/BB", "ABCDE", "≤12", "AAA", "=1,3,5", "=2,4,6", "AAA",
+        "=2,4,6", "AAAA/BB", "AAA", "AA/BB/CC", "ABCD", "AAA/BBB", "≥30",
+        "ABCD", "AAAA", "≥30", "ABCDE", "AAAA/BB", "=1,3,5", "AAA/BB",
+        "≤12", "AAA/BB", "=2,4,6", "AAA/BBB", "≤12", "AA/BB", "ABCDE",
+        "AAA", "ABCDE", "AA/BB/CC", "=1,3,5", "AAAA", "≥30", "AA/BB",
+        "=1,3,5", "AAA/BBB", "ABCD", "AAAA/BB", "AAA/BB", "AA/BB/CC", "≤12",
+        "ABCD", "≥30", "AAAA", "AA/BB", "=1,3,5", "AAAA", "AAA/BB"
+    };
+
+    private final int boardSize;
+    private final int cellCount;
+    private final int words;
+    private final long[] allCells;
+    private final byte[] squareTypes;
+    private final long[][] typeMasks;
+
+    private final long[][] playerStones;
+    private final long[] occupied;
+    private int occupiedCount;
+
+    public BoardState(int boardSize, SquareType[] layout, int playerCount) {
+        if (boardSize <= 0 || layout.length != boardSize * boardSize) {
+            throw new IllegalArgumentException("Layout does not fit a " + boardSize + "x" + boardSize + " board");
+        }
+        this.boardSize = boardSize;
+        this.cellCount = boardSize * boardSize;
+        this.words = CellBits.words(cellCount);
+        this.allCells = new long[words];
+        this.squareTypes = new byte[cellCount];
+        this.typeMasks = new long[SquareType.count()][words];
+        for (int cell = 0; cell < cellCount; cell++) {
+            CellBits.set(allCells, cell);
+            squareTypes[cell] = (byte) layout[cell].ordinal();
+            CellBits.set(typeMasks[layout[cell].ordinal()], cell);
+        }
+        this.playerStones = new long[playerCount][words];
+        this.occupied = new long[words];
+    }
+
+    // Copy constructor (for simulations). The layout arrays are shared, they never change.
+    private BoardState(BoardState other) {
+        this.boardSize = other.boardSize;
+        this.cellCount = other.cellCount;
+        this.words = other.words;
+        this.allCells = other.allCells;
+        this.squareTypes = other.squareTypes;
+        this.typeMasks = other.typeMasks;
+        this.playerStones = new long[other.playerStones.length][];
+        for (int p = 0; p < playerStones.length; p++) {
+            playerStones[p] = other.playerStones[p].clone();
+        }
+        this.occupied = other.occupied.clone();
+        this.occupiedCount = other.occupiedCount;
+    }
+
+    public BoardState copy() {
+        return new BoardState(this);
+    }
+
+    /**
+     * Overwrites the stones with those of other (same layout), without allocating.
+     */
+    public void copyFrom(BoardState other) {
+        for (int p = 0; p < playerStones.length; p++) {
+            System.arraycopy(other.playerStones[p], 0, playerStones[p], 0, words);
+        }
+        System.arraycopy(other.occupied, 0, occupied, 0, words);
+        occupiedCount = other.occupiedCount;
+    }
+
+    /**
+     * Puts a stone of player on cell. Throws if the cell is already taken.
+     */
+    public void place(int player, int cell) {
+        if (CellBits.get(occupied, cell)) {
+            throw new IllegalStateException("Cell " + cell + " is already occupied");
+        }
+        CellBits.set(playerStones[player], cell);
+        CellBits.set(occupied, cell);
+        occupiedCount++;
+    }
+
+    /**
+     * Clears every stone (keeps the layout).
+     */
+    public void clear() {
+        for (int p = 0; p < playerStones.length; p++) {
+            java.util.Arrays.fill(playerStones[p], 0L);
+        }
+        java.util.Arrays.fill(occupied, 0L);
+        occupiedCount = 0;
+    }
+
+    public boolean isOccupied(int cell) {
+        return CellBits.get(occupied, cell);
+    }
+
+    /**
+     * Owner of the stone on cell, or -1 if it is empty.
+     */
+    public int getOwner(int cell) {
+        if (!CellBits.get(occupied, cell)) {
+            return -1;
+        }
+        for (int p = 0; p < playerStones.length; p++) {
+            if (CellBits.get(playerStones[p], cell)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isFull() {
+        return occupiedCount == cellCount;
+    }
+
+    public int getOccupiedCount() {
+        return occupiedCount;
+    }
+
+    // -------------------- Cell sets --------------------
+
+    /**
+     * An empty cell set sized for this board.
+     */
+    public long[] newCellSet() {
+        return new long[words];
+    }
+
+    public void getOccupiedCells(long[] out) {
+        System.arraycopy(occupied, 0, out, 0, words);
+    }
+
+    public void getEmptyCells(long[] out) {
+        for (int w = 0; w < words; w++) {
+            out[w] = allCells[w] & ~occupied[w];
+        }
+    }
+
+    /**
+     * The stones of player. Read-only: it is the board's own bitset.
+     */
+    public long[] getPlayerStones(int player) {
+        return playerStones[player];
+    }
+
+    /**
+     * All cells (empty or not) whose type is in typeBits (a PlacementTable mask).
+     */
+    public void getCellsOfTypes(int typeBits, long[] out) {
+        java.util.Arrays.fill(out, 0L);
+        while (typeBits != 0) {
+            long[] mask = typeMasks[Integer.numberOfTrailingZeros(typeBits)];
+            typeBits &= typeBits - 1;
+            for (int w = 0; w < words; w++) {
+                out[w] |= mask[w];
+            }
+        }
+    }
+
+    /**
+     * Empty cells whose type is in typeBits. Returns false if there are none.
+     */
+    public boolean getOpenCellsOfTypes(int typeBits, long[] out) {
+        getCellsOfTypes(typeBits, out);
+        long any = 0;
+        for (int w = 0; w < words; w++) {
+            out[w] &= ~occupied[w];
+            any |= out[w];
+        }
+        return any != 0;
+    }
+
+    /**
+     * Empty cells the dice encoded by diceKey may be placed on. Returns false if there are none.
+     */
+    public boolean getValidCells(int diceKey, long[] out) {
+        return getOpenCellsOfTypes(PlacementTable.typesFor(diceKey), out);
+    }
+
+    /**
+     * PlacementTable mask of the square types that still have at least one empty cell.
+     */
+    public int getOpenTypes() {
+        int types = 0;
+        for (int t = 0; t < typeMasks.length; t++) {
+            long[] mask = typeMasks[t];
+            for (int w = 0; w < words; w++) {
+                if ((mask[w] & ~occupied[w]) != 0) {
+                    types |= 1 << t;
+                    break;
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Square types of the standard board (a fresh array).
+     */
+    public static SquareType[] standardLayout() {
+        return SquareType.fromLabels(STANDARD_LABELS);
+    }
+
+    // -------------------- Getters --------------------
+
+    public SquareType getSquareType(int cell) {
+        return SquareType.byOrdinal(squareTypes[cell]);
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getPlayerCount() {
+        return playerStones.length;
+    }
+}
@@ -1,22 +1,55 @@
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.swing.*;
 
-public class BobbleheadPanel extends JPanel implements PlayerSettings.BobbleheadPanel {
+/**
+ * An animated player figure for the menu. The figure is drawn once per animation phase into a
+ * shared sprite atlas (one strip of PHASES frames per size, color, CPU/human look and color mode),
+ * so a frame is a single image copy plus the "P1" label; frames are drawn the first time they show.
+ */
+public class BobbleheadPanel extends JPanel implements PlayerSettings.BobbleheadPanel, AnimationClock.Animated {
+    // Neck color
+    static final Color SKIN = new Color(255, 222, 173);
+
+    // Frames per full bob; about a pixel of head movement between neighbouring frames
+    private static final int PHASES = 32;
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 12);
+    // Strips kept for reuse (a strip of 100x100 frames is 1.25 MB)
+    private static final int MAX_ATLASES = 16;
+    private static final Map<String, Atlas> ATLASES = new LinkedHashMap<String, Atlas>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Atlas> eldest) {
+            return size() > MAX_ATLASES;
+        }
+    };
+
     private Color color;
+    private Color bodyColor; // slightly darker than the head, kept with color
     private int playerId;
     private boolean isCpu;
     private double bobbleAngle = 0;
-    private double bobbleSpeed = 0.1;
+    private double bobbleSpeed = 0.1; // radians per AnimationClock.BASE_PERIOD_MS
     private double bobbleMagnitude = 5;
 
+    private final String label;
+    private int labelWidth = -1;
+    private int paintedPhase = -1;
+    // Strip for the look last painted (dropped when the color, CPU flag or magnitude changes)
+    private Atlas atlas;
+
     public BobbleheadPanel(int playerId, Color color) {
         this.playerId = playerId;
+        this.label = "P" + (playerId + 1);
         this.color = color;
+        this.bodyColor = color.darker();
         this.setOpaque(false);
     }
     
     public void setCpu(boolean isCpu) {
         this.isCpu = isCpu;
+        this.atlas = null;
         repaint();
     }
     
@@ -27,14 +60,22 @@ public class BobbleheadPanel extends JPanel implements PlayerSettings.Bobblehead
     @Override
     public void setColor(Color color) {
         this.color = color;
+        this.bodyColor = color.darker();
+        this.atlas = null;
         repaint();
     }
     
     public void updateAnimation() {
-        bobbleAngle += bobbleSpeed;
-        if (bobbleAngle > 2 * Math.PI) {
-            bobbleAngle -= 2 * Math.PI;
-        }
+        advance(AnimationClock.BASE_PERIOD_MS);
+    }
+
+    /**
+     * Bobs on by elapsedMillis; true once the head has moved to a different frame.
+     */
+    @Override
+    public boolean advance(long elapsedMillis) {
+        bobbleAngle = (bobbleAngle + bobbleSpeed * elapsedMillis / AnimationClock.BASE_PERIOD_MS) % (2 * Math.PI);
+        return phase() != paintedPhase;
     }
     
     public void setBobbleSpeed(double speed) {
@@ -43,28 +84,69 @@ public class BobbleheadPanel extends JPanel implements PlayerSettings.Bobblehead
     
     public void setBobbleMagnitude(double magnitude) {
         this.bobbleMagnitude = magnitude;
+        this.atlas = null;
     }
     
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
-        
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        
         int width = getWidth();
         int height = getHeight();
-        
-        double offsetX = Math.sin(bobbleAngle) * bobbleMagnitude;
-        double offsetY = Math.cos(bobbleAngle) * (bobbleMagnitude / 2);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        // Frames are drawn at device resolution so HiDPI screens stay sharp
+        double scale = g2d.getTransform().getScaleX();
+        DisplaySettings.ColorBlindnessFilter.Mode mode = DisplaySettings.ColorBlindnessFilter.getWidgetMode();
+        if (atlas == null || atlas.width != width || atlas.height != height || atlas.scale != scale
+                || atlas.mode != mode) {
+            String key = width + "x" + height + "@" + scale + " " + color.getRGB() + (isCpu ? " cpu " : " human ")
+                    + mode + " " + bobbleMagnitude;
+            synchronized (ATLASES) {
+                atlas = ATLASES.computeIfAbsent(key, k -> new Atlas(width, height, scale, mode));
+            }
+        }
+        int phase = phase();
+        paintedPhase = phase;
+        if (!atlas.drawn[phase]) {
+            Graphics2D frame = atlas.image.createGraphics();
+            frame.translate(phase * atlas.frameWidth, 0);
+            frame.scale(scale, scale);
+            frame.clipRect(0, 0, width, height);
+            frame.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            drawFigure(frame, width, height, 2 * Math.PI * phase / PHASES);
+            frame.dispose();
+            atlas.drawn[phase] = true;
+        }
+        int sx = phase * atlas.frameWidth;
+        g2d.drawImage(atlas.image, 0, 0, width, height, sx, 0, sx + atlas.frameWidth, atlas.frameHeight, null);
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(LABEL_FONT);
+        if (labelWidth < 0) {
+            labelWidth = g2d.getFontMetrics().stringWidth(label);
+        }
+        g2d.drawString(label, (width - labelWidth) / 2, height - 5);
+    }
+
+    // Atlas frame for the current angle
+    private int phase() {
+        return (int) Math.round(bobbleAngle * PHASES / (2 * Math.PI)) % PHASES;
+    }
+
+    // The figure (everything but the label) with the head at angle
+    private void drawFigure(Graphics2D g2d, int width, int height, double angle) {
+        double offsetX = Math.sin(angle) * bobbleMagnitude;
+        double offsetY = Math.cos(angle) * (bobbleMagnitude / 2);
         
         int bodyWidth = width / 3;
         int bodyHeight = height / 3;
         int bodyX = (width - bodyWidth) / 2;
         int bodyY = height - bodyHeight;
         
-        // Body color slightly darker than head
-        Color bodyColor = color.darker();
         g2d.setColor(DisplaySettings.ColorBlindnessFilter.transformColor(bodyColor));
         
         if (isCpu) {
@@ -84,7 +166,7 @@ public class BobbleheadPanel extends JPanel implements PlayerSettings.Bobblehead
         int neckX = (width - neckWidth) / 2;
         int neckY = bodyY - neckHeight;
         
-        g2d.setColor(DisplaySettings.ColorBlindnessFilter.transformColor(new Color(255, 222, 173)));
+        g2d.setColor(DisplaySettings.ColorBlindnessFilter.transformColor(SKIN));
         g2d.fillRect(neckX, neckY, neckWidth, neckHeight);
         
         int headDiameter = width / 2 + 10;
@@ -123,14 +205,27 @@ public class BobbleheadPanel extends JPanel implements PlayerSettings.Bobblehead
                        headY + 2*headDiameter/3, 
                        mouthWidth, mouthHeight, 0, 180);
         }
-        
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 12));
-        String playerText = "P" + (playerId + 1);
-        FontMetrics fm = g2d.getFontMetrics();
-        int textWidth = fm.stringWidth(playerText);
-        g2d.drawString(playerText, 
-                      (width - textWidth) / 2, 
-                      height - 5);
+    }
+
+    // One strip of PHASES frames side by side, transparent until each frame is drawn
+    private static final class Atlas {
+        final int width;
+        final int height;
+        final double scale;
+        final DisplaySettings.ColorBlindnessFilter.Mode mode;
+        final int frameWidth;
+        final int frameHeight;
+        final BufferedImage image;
+        final boolean[] drawn = new boolean[PHASES];
+
+        Atlas(int width, int height, double scale, DisplaySettings.ColorBlindnessFilter.Mode mode) {
+            this.width = width;
+            this.height = height;
+            this.scale = scale;
+            this.mode = mode;
+            this.frameWidth = (int) Math.ceil(width * scale);
+            this.frameHeight = (int) Math.ceil(height * scale);
+            this.image = new BufferedImage(frameWidth * PHASES, frameHeight, BufferedImage.TYPE_INT_ARGB);
+        }
     }
 }
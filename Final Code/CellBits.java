@@ -0,0 +1,77 @@
+/**
+ * Helpers for cell sets stored as long[] bitsets (bit i of word i / 64 = cell i, row-major),
+ * as used by BoardState for boards of any size. All sets of one board have the same length.
+ *
+ * Iterate with:
+ *   for (int cell = CellBits.next(bits, 0); cell >= 0; cell = CellBits.next(bits, cell + 1))
+ */
+public final class CellBits {
+
+    private CellBits() {
+    }
+
+    public static int words(int cellCount) {
+        return (cellCount + 63) >>> 6;
+    }
+
+    public static boolean get(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public static void set(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * First cell at or after from that is in the set, or -1.
+     */
+    public static int next(long[] bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) {
+            return -1;
+        }
+        long word = bits[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == bits.length) {
+                return -1;
+            }
+            word = bits[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    public static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The n-th cell of the set (0-based, n < count(bits)).
+     */
+    public static int nth(long[] bits, int n) {
+        for (int w = 0; w < bits.length; w++) {
+            int inWord = Long.bitCount(bits[w]);
+            if (n < inWord) {
+                long word = bits[w];
+                for (int i = 0; i < n; i++) {
+                    word &= word - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            n -= inWord;
+        }
+        return -1;
+    }
+}
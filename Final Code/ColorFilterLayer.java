@@ -0,0 +1,115 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.stream.IntStream;
+import javax.swing.*;
+import javax.swing.plaf.LayerUI;
+
+/**
+ * Full-frame color-blind filter (DisplaySettings "Filter whole window"):
+ * - Wraps a window's content pane in a JLayer; while ColorBlindnessFilter.getFrameMode() is not
+ *   NORMAL, the window is painted into an offscreen image, every pixel is recolored through a
+ *   lookup table, and the image is drawn instead
+ * - One table per Mode: 64 levels per channel (64^3 entries, 1 MB), built the first time the
+ *   mode is used. Nothing is missed, since the table sees pixels rather than Colors
+ * - Only the repainted area is filtered (JLayer is the painting origin for everything inside it,
+ *   so a one-square board repaint filters one square); big areas are split over all cores by row
+ * - With the filter off, painting goes straight through
+ */
+@SuppressWarnings("serial") // never serialized
+public class ColorFilterLayer extends LayerUI<JComponent> {
+
+    // Below this many pixels one thread is faster than splitting the rows
+    private static final int PARALLEL_PIXELS = 200_000;
+
+    private static final int[][] TABLES = new int[DisplaySettings.ColorBlindnessFilter.Mode.values().length][];
+
+    // Whole window at device resolution, reused while the size stays the same
+    private BufferedImage buffer;
+
+    /**
+     * Puts frame's content pane inside a filtering JLayer. Call once the frame's components
+     * are all added: a JLayer takes no children of its own.
+     */
+    public static void install(JFrame frame) {
+        JComponent view = (JComponent) frame.getContentPane();
+        frame.setContentPane(new JLayer<>(view, new ColorFilterLayer()));
+    }
+
+    @Override
+    public void paint(Graphics g, JComponent c) {
+        DisplaySettings.ColorBlindnessFilter.Mode mode = DisplaySettings.ColorBlindnessFilter.getFrameMode();
+        if (mode == DisplaySettings.ColorBlindnessFilter.Mode.NORMAL || c.getWidth() <= 0 || c.getHeight() <= 0) {
+            super.paint(g, c);
+            return;
+        }
+        Graphics2D screen = (Graphics2D) g;
+        AffineTransform scale = screen.getTransform();
+        double scaleX = scale.getScaleX();
+        double scaleY = scale.getScaleY();
+        int width = (int) Math.ceil(c.getWidth() * scaleX);
+        int height = (int) Math.ceil(c.getHeight() * scaleY);
+        if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+            buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, c.getWidth(), c.getHeight());
+        }
+        Graphics2D offscreen = buffer.createGraphics();
+        offscreen.scale(scaleX, scaleY);
+        offscreen.setClip(clip);
+        super.paint(offscreen, c);
+        offscreen.dispose();
+
+        // The clip in buffer pixels
+        int x0 = Math.max(0, (int) Math.floor(clip.x * scaleX));
+        int y0 = Math.max(0, (int) Math.floor(clip.y * scaleY));
+        int x1 = Math.min(width, (int) Math.ceil((clip.x + clip.width) * scaleX));
+        int y1 = Math.min(height, (int) Math.ceil((clip.y + clip.height) * scaleY));
+        if (x0 < x1 && y0 < y1) {
+            filter(((DataBufferInt) buffer.getRaster().getDataBuffer()).getData(), width, table(mode), x0, y0, x1, y1);
+        }
+        screen.drawImage(buffer, 0, 0, c.getWidth(), c.getHeight(), null);
+    }
+
+    // Recolors the rectangle [x0, x1) x [y0, y1) of an RGB image in place
+    private static void filter(int[] pixels, int width, int[] table, int x0, int y0, int x1, int y1) {
+        IntStream rows = IntStream.range(y0, y1);
+        if ((long) (x1 - x0) * (y1 - y0) >= PARALLEL_PIXELS) {
+            rows = rows.parallel();
+        }
+        rows.forEach(row -> {
+            int end = row * width + x1;
+            for (int i = row * width + x0; i < end; i++) {
+                int rgb = pixels[i];
+                pixels[i] = table[(rgb >> 6 & 0x3F000) | (rgb >> 4 & 0xFC0) | (rgb >> 2 & 0x3F)];
+            }
+        });
+    }
+
+    /**
+     * mode's table: index (r >> 2) << 12 | (g >> 2) << 6 | (b >> 2), value the transformed RGB
+     * of one color from that 4x4x4 block (the 6 bits repeated out to 8, so pure black, white
+     * and primaries come out exact).
+     */
+    static synchronized int[] table(DisplaySettings.ColorBlindnessFilter.Mode mode) {
+        int[] table = TABLES[mode.ordinal()];
+        if (table == null) {
+            table = new int[64 * 64 * 64];
+            for (int index = 0; index < table.length; index++) {
+                Color color = new Color(level(index >> 12), level(index >> 6 & 63), level(index & 63));
+                table[index] = DisplaySettings.ColorBlindnessFilter.transform(mode, color).getRGB();
+            }
+            TABLES[mode.ordinal()] = table;
+        }
+        return table;
+    }
+
+    // 6-bit level back to 0-255
+    private static int level(int sixBits) {
+        return sixBits << 2 | sixBits >> 4;
+    }
+}
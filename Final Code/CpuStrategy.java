@@ -0,0 +1,31 @@
+/**
+ * How a CPU player takes its turn, shared by KiviGameplay and the headless GameSimulator:
+ * - chooseHold: which dice to keep before each reroll (STOP_ROLLING to stop)
+ * - chooseMove: which legal move to play once it has stopped rolling
+ *
+ * Implementations keep scratch state, so use one instance per thread.
+ */
+public interface CpuStrategy {
+
+    // Hold mask meaning "keep all six dice", i.e. don't roll again
+    int STOP_ROLLING = 63;
+
+    /**
+     * Dice to keep for the next roll (bit i = keep die i); rollCount rolls have been used so far.
+     */
+    int chooseHold(GameState state, int[] diceValues, int rollCount);
+
+    /**
+     * Index of the move to play among the moveCount moves just generated for diceValues.
+     * Search-based strategies stop thinking at deadlineMillis (System.currentTimeMillis()).
+     */
+    int chooseMove(GameState state, int[] diceValues, MoveGenerator moves, int moveCount, long deadlineMillis);
+
+    /**
+     * Called from another thread: a chooseMove that is thinking right now returns soon, with
+     * the best move found so far. Later calls are unaffected. Only search-based strategies
+     * have anything to stop.
+     */
+    default void stopThinking() {
+    }
+}
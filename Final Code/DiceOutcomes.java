@@ -0,0 +1,198 @@
+/**
+ * Static tables over dice multisets (as PlacementTable keys), shared by the
+ * planning code:
+ * - Every multiset of 0-6 dice gets a dense index (924 in total, 462 with six dice)
+ * - For each number of dice, the outcomes of rolling them and their exact probabilities
+ * - For each six-die multiset, the dense indices of all its sub-multisets
+ * - For each six-die multiset, the square types some subset of it satisfies
+ */
+public final class DiceOutcomes {
+
+    public static final int MULTISET_COUNT = 924;
+    public static final int FULL_ROLL_COUNT = 462;
+
+    private static final int[] KEYS = new int[MULTISET_COUNT];
+    private static final int[] SIZES = new int[MULTISET_COUNT];
+    private static final char[] INDEX_OF_KEY = new char[PlacementTable.KEY_SPACE];
+
+    // OUTCOME_KEYS[n] / OUTCOME_PROBS[n]: rolling n dice
+    private static final int[][] OUTCOME_KEYS = new int[7][];
+    private static final double[][] OUTCOME_PROBS = new double[7][];
+    private static final int[] FIRST_INDEX = new int[7];
+
+    // Indexed by full-roll index (0..461)
+    private static final int[] FULL_ROLL_KEYS = new int[FULL_ROLL_COUNT];
+    private static final int[][] SUB_MULTISETS = new int[FULL_ROLL_COUNT][];
+    private static final int[] REACHABLE_TYPES = new int[FULL_ROLL_COUNT];
+
+    private static int nextIndex = 0;
+
+    static {
+        java.util.Arrays.fill(INDEX_OF_KEY, Character.MAX_VALUE);
+        int[] counts = new int[7];
+        // Index by size first so that every size forms one contiguous block
+        for (int size = 0; size <= 6; size++) {
+            int start = nextIndex;
+            FIRST_INDEX[size] = start;
+            enumerate(counts, 1, size);
+            int n = nextIndex - start;
+            OUTCOME_KEYS[size] = new int[n];
+            OUTCOME_PROBS[size] = new double[n];
+            double total = Math.pow(6, size);
+            for (int i = 0; i < n; i++) {
+                int key = KEYS[start + i];
+                OUTCOME_KEYS[size][i] = key;
+                OUTCOME_PROBS[size][i] = orderings(key, size) / total;
+            }
+            if (size == 6) {
+                for (int i = 0; i < n; i++) {
+                    FULL_ROLL_KEYS[i] = KEYS[start + i];
+                }
+            }
+        }
+        for (int i = 0; i < FULL_ROLL_COUNT; i++) {
+            buildSubMultisets(i);
+        }
+    }
+
+    private DiceOutcomes() {
+    }
+
+    // -------------------- Lookups --------------------
+
+    public static int indexOf(int key) {
+        return INDEX_OF_KEY[key];
+    }
+
+    public static int keyAt(int index) {
+        return KEYS[index];
+    }
+
+    public static int sizeAt(int index) {
+        return SIZES[index];
+    }
+
+    /**
+     * Dense index range of the multisets with this many dice is
+     * [firstIndexOfSize(n), firstIndexOfSize(n) + outcomeCount(n)).
+     */
+    public static int firstIndexOfSize(int dice) {
+        return FIRST_INDEX[dice];
+    }
+
+    public static int outcomeCount(int dice) {
+        return OUTCOME_KEYS[dice].length;
+    }
+
+    public static int outcomeKey(int dice, int i) {
+        return OUTCOME_KEYS[dice][i];
+    }
+
+    public static double outcomeProbability(int dice, int i) {
+        return OUTCOME_PROBS[dice][i];
+    }
+
+    /**
+     * Index (0..461) of a six-die multiset among the full rolls.
+     */
+    public static int fullRollIndex(int key) {
+        return INDEX_OF_KEY[key] - (MULTISET_COUNT - FULL_ROLL_COUNT);
+    }
+
+    public static int fullRollKey(int fullRollIndex) {
+        return FULL_ROLL_KEYS[fullRollIndex];
+    }
+
+    /**
+     * Dense indices of every sub-multiset (including empty and itself) of a full roll.
+     * The returned array is shared and must not be modified.
+     */
+    public static int[] subMultisets(int fullRollIndex) {
+        return SUB_MULTISETS[fullRollIndex];
+    }
+
+    /**
+     * PlacementTable mask of the square types some selection of these six dice satisfies.
+     */
+    public static int reachableTypes(int fullRollIndex) {
+        return REACHABLE_TYPES[fullRollIndex];
+    }
+
+    /**
+     * Number of dice showing face in the multiset with this key.
+     */
+    public static int count(int key, int face) {
+        return (key / PlacementTable.FACE_WEIGHT[face]) % 7;
+    }
+
+    // -------------------- Table construction --------------------
+
+    private static void enumerate(int[] counts, int face, int remaining) {
+        if (face == 6) {
+            counts[6] = remaining;
+            int key = 0;
+            for (int f = 1; f <= 6; f++) {
+                key += counts[f] * PlacementTable.FACE_WEIGHT[f];
+            }
+            KEYS[nextIndex] = key;
+            SIZES[nextIndex] = sumCounts(counts);
+            INDEX_OF_KEY[key] = (char) nextIndex;
+            nextIndex++;
+            return;
+        }
+        for (int n = 0; n <= remaining; n++) {
+            counts[face] = n;
+            enumerate(counts, face + 1, remaining - n);
+        }
+        counts[face] = 0;
+    }
+
+    private static int sumCounts(int[] counts) {
+        int size = 0;
+        for (int f = 1; f <= 6; f++) {
+            size += counts[f];
+        }
+        return size;
+    }
+
+    // Number of distinct orderings of the dice (multinomial coefficient)
+    private static double orderings(int key, int size) {
+        double result = factorial(size);
+        for (int f = 1; f <= 6; f++) {
+            result /= factorial(count(key, f));
+        }
+        return result;
+    }
+
+    private static double factorial(int n) {
+        double result = 1;
+        for (int i = 2; i <= n; i++) {
+            result *= i;
+        }
+        return result;
+    }
+
+    private static void buildSubMultisets(int fullRollIndex) {
+        int key = FULL_ROLL_KEYS[fullRollIndex];
+        int total = 1;
+        for (int f = 1; f <= 6; f++) {
+            total *= count(key, f) + 1;
+        }
+        int[] subs = new int[total];
+        int types = 0;
+        for (int i = 0; i < total; i++) {
+            // Mixed-radix counter over (count_f + 1) choices per face
+            int rest = i;
+            int subKey = 0;
+            for (int f = 1; f <= 6; f++) {
+                int radix = count(key, f) + 1;
+                subKey += (rest % radix) * PlacementTable.FACE_WEIGHT[f];
+                rest /= radix;
+            }
+            subs[i] = INDEX_OF_KEY[subKey];
+            types |= PlacementTable.typesFor(subKey);
+        }
+        SUB_MULTISETS[fullRollIndex] = subs;
+        REACHABLE_TYPES[fullRollIndex] = types;
+    }
+}
@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact odds of the three-roll turn, per square type:
+ * - For every hold (any multiset of kept dice) with 1 or 2 rerolls left, the probability
+ *   of ending the turn with dice that satisfy each square type
+ * - Assumes the remaining holds also aim for that type (the best chance of hitting it)
+ * - Built by dynamic programming over the 462 six-die rolls (DiceOutcomes), no sampling
+ *
+ * The table is small (13 types x 2 x 924 floats) and saved as a little-endian binary file.
+ * get() looks for it, in order:
+ * - DEFAULT_FILE on the class path (a copy shipped next to the classes)
+ * - CACHE_DIR under the user's home directory, memory-mapped; computed and saved there
+ *   if it is missing or stale
+ * - Otherwise (no home directory, or it can't be written) the table is computed in memory
+ * Nothing is written to the directory the game was started from. Queries are a single float read.
+ *
+ * Run "java DiceProbabilityModel [file]" to (re)build a file, e.g. the class-path copy.
+ */
+public class DiceProbabilityModel {
+
+    public static final String DEFAULT_FILE = "dice-probabilities.bin";
+    // Per-user cache, under user.home
+    public static final String CACHE_DIR = ".kivi";
+
+    private static final int MAGIC = 0x4B495650; // "KIVP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final int MAX_REROLLS = RollADice.MAX_ROLLS - 1;
+    private static final int TYPES = SquareType.count();
+    private static final int ENTRIES = MAX_REROLLS * TYPES * DiceOutcomes.MULTISET_COUNT;
+
+    private static DiceProbabilityModel shared;
+
+    // [((rerollsLeft - 1) * TYPES + type) * MULTISET_COUNT + kept multiset]
+    private final FloatBuffer table;
+
+    private DiceProbabilityModel(FloatBuffer table) {
+        this.table = table;
+    }
+
+    /**
+     * The shared model: the class-path copy, else the user's cache (built and saved there on
+     * first use), else computed in memory.
+     */
+    public static synchronized DiceProbabilityModel get() {
+        if (shared == null) {
+            shared = loadResource();
+        }
+        if (shared == null) {
+            Path cache = cacheFile();
+            shared = cache != null ? loadOrCompute(cache) : compute();
+        }
+        return shared;
+    }
+
+    /**
+     * Where get() caches the model: user.home/CACHE_DIR/DEFAULT_FILE, or null without a home directory.
+     */
+    public static Path cacheFile() {
+        String home = System.getProperty("user.home");
+        return home == null || home.isEmpty() ? null : Paths.get(home, CACHE_DIR, DEFAULT_FILE);
+    }
+
+    /**
+     * Chance of ending the turn able to fill a square of this type, after keeping the dice
+     * encoded by keptKey (PlacementTable key, 0..6 dice) with rerollsLeft (1 or 2) rerolls left.
+     */
+    public double probability(SquareType type, int keptKey, int rerollsLeft) {
+        if (rerollsLeft <= 0) {
+            return DiceOutcomes.sizeAt(DiceOutcomes.indexOf(keptKey)) == 6
+                    && (DiceOutcomes.reachableTypes(DiceOutcomes.fullRollIndex(keptKey)) & type.bit()) != 0 ? 1 : 0;
+        }
+        int r = Math.min(rerollsLeft, MAX_REROLLS);
+        return table.get(((r - 1) * TYPES + type.ordinal()) * DiceOutcomes.MULTISET_COUNT
+                + DiceOutcomes.indexOf(keptKey));
+    }
+
+    /**
+     * Chance of ending the turn able to fill a square of this type from these six dice,
+     * holding the best dice for it (or stopping) with rerollsLeft rerolls left.
+     */
+    public double probability(SquareType type, int[] diceValues, int rerollsLeft) {
+        return probabilityFromRoll(type, PlacementTable.keyOf(diceValues, 63), rerollsLeft);
+    }
+
+    /**
+     * Chance of filling a square of this type over a whole turn (all three rolls).
+     */
+    public double turnProbability(SquareType type) {
+        double p = 0;
+        for (int i = 0; i < DiceOutcomes.outcomeCount(6); i++) {
+            p += DiceOutcomes.outcomeProbability(6, i)
+                    * probabilityFromRoll(type, DiceOutcomes.outcomeKey(6, i), MAX_REROLLS);
+        }
+        return p;
+    }
+
+    private double probabilityFromRoll(SquareType type, int fullKey, int rerollsLeft) {
+        int m = DiceOutcomes.fullRollIndex(fullKey);
+        if ((DiceOutcomes.reachableTypes(m) & type.bit()) != 0) {
+            return 1;
+        }
+        double best = 0;
+        if (rerollsLeft > 0) {
+            for (int k : DiceOutcomes.subMultisets(m)) {
+                best = Math.max(best, probability(type, DiceOutcomes.keyAt(k), rerollsLeft));
+            }
+        }
+        return best;
+    }
+
+    // -------------------- Building --------------------
+
+    /**
+     * Runs the dynamic program (a few million multiply-adds).
+     */
+    public static DiceProbabilityModel compute() {
+        float[] table = new float[ENTRIES];
+        double[] rollValue = new double[DiceOutcomes.FULL_ROLL_COUNT];
+        double[] keepValue = new double[DiceOutcomes.MULTISET_COUNT];
+        for (int t = 0; t < TYPES; t++) {
+            int bit = SquareType.byOrdinal(t).bit();
+            // No rerolls left: the final roll either satisfies the type or not
+            for (int m = 0; m < DiceOutcomes.FULL_ROLL_COUNT; m++) {
+                rollValue[m] = (DiceOutcomes.reachableTypes(m) & bit) != 0 ? 1 : 0;
+            }
+            for (int r = 1; r <= MAX_REROLLS; r++) {
+                // Chance layer: keep k, roll the rest
+                for (int k = 0; k < DiceOutcomes.MULTISET_COUNT; k++) {
+                    int keptKey = DiceOutcomes.keyAt(k);
+                    int toRoll = 6 - DiceOutcomes.sizeAt(k);
+                    double p = 0;
+                    for (int i = 0; i < DiceOutcomes.outcomeCount(toRoll); i++) {
+                        p += DiceOutcomes.outcomeProbability(toRoll, i)
+                                * rollValue[DiceOutcomes.fullRollIndex(keptKey + DiceOutcomes.outcomeKey(toRoll, i))];
+                    }
+                    keepValue[k] = p;
+                    table[((r - 1) * TYPES + t) * DiceOutcomes.MULTISET_COUNT + k] = (float) p;
+                }
+                // Decision layer: the best hold for this type (stopping is always an option)
+                for (int m = 0; m < DiceOutcomes.FULL_ROLL_COUNT; m++) {
+                    double best = rollValue[m];
+                    for (int k : DiceOutcomes.subMultisets(m)) {
+                        best = Math.max(best, keepValue[k]);
+                    }
+                    rollValue[m] = best;
+                }
+            }
+        }
+        return new DiceProbabilityModel(FloatBuffer.wrap(table));
+    }
+
+    // -------------------- File --------------------
+
+    /**
+     * Memory-maps a model file; throws IOException if it is missing or doesn't match this build.
+     */
+    public static DiceProbabilityModel load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long expected = HEADER_BYTES + (long) ENTRIES * Float.BYTES;
+            if (channel.size() != expected) {
+                throw new IOException(file + " has the wrong size");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected);
+            // The mapping stays valid after the channel is closed
+            return fromBytes(map, file.toString());
+        }
+    }
+
+    // DEFAULT_FILE from the class path, or null if it isn't there or doesn't match this build
+    private static DiceProbabilityModel loadResource() {
+        try (InputStream in = DiceProbabilityModel.class.getResourceAsStream("/" + DEFAULT_FILE)) {
+            if (in == null) {
+                return null;
+            }
+            byte[] bytes = in.readAllBytes();
+            if (bytes.length != HEADER_BYTES + ENTRIES * Float.BYTES) {
+                return null;
+            }
+            return fromBytes(ByteBuffer.wrap(bytes), DEFAULT_FILE);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Checks the header of a whole model file's bytes and wraps the floats after it
+    private static DiceProbabilityModel fromBytes(ByteBuffer bytes, String source) throws IOException {
+        bytes.order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.getInt() != MAGIC || bytes.getInt() != VERSION || bytes.getInt() != TYPES
+                || bytes.getInt() != DiceOutcomes.MULTISET_COUNT || bytes.getInt() != MAX_REROLLS) {
+            throw new IOException(source + " is not a dice probability model for this version");
+        }
+        return new DiceProbabilityModel(bytes.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer());
+    }
+
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + ENTRIES * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(TYPES).putInt(DiceOutcomes.MULTISET_COUNT).putInt(MAX_REROLLS);
+        for (int i = 0; i < ENTRIES; i++) {
+            buffer.putFloat(table.get(i));
+        }
+        buffer.flip();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static DiceProbabilityModel loadOrCompute(Path file) {
+        try {
+            return load(file);
+        } catch (IOException e) {
+            // Missing or stale: build it, and keep a copy for next time if we can
+            DiceProbabilityModel model = compute();
+            try {
+                Files.createDirectories(file.getParent());
+                model.save(file);
+            } catch (IOException | SecurityException ignored) {
+                // Read-only home directory: just use the in-memory table
+            }
+            return model;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+        long start = System.nanoTime();
+        DiceProbabilityModel model = compute();
+        model.save(file);
+        System.out.printf("Wrote %s in %.1f ms%n", file, (System.nanoTime() - start) / 1e6);
+        System.out.printf("%-10s %8s %8s %8s%n", "Type", "3 rolls", "2 rolls", "1 roll");
+        for (SquareType type : SquareType.values()) {
+            // 2 and 1 rolls: nothing kept with that many rerolls left
+            System.out.printf("%-10s %7.2f%% %7.2f%% %7.2f%%%n", type.getLabel(), 100 * model.turnProbability(type),
+                    100 * model.probability(type, 0, 2), 100 * model.probability(type, 0, 1));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * CPU difficulty levels, as listed in the player difficulty drop-downs:
+ * - EASY: random legal square
+ * - HARD: highest-point square for the first roll
+ * - EXPERT: plans which dice to keep across all three rolls (see ExpertPlanner)
+ * - MASTER: Expert holds, then a Monte Carlo tree search over placements that
+ *   uses the turn clock as its time budget (see MctsPlanner)
+ */
+public enum Difficulty {
+    EASY("Easy"),
+    HARD("Hard"),
+    EXPERT("Expert"),
+    MASTER("Master");
+
+    private final String label;
+
+    Difficulty(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * A new CPU strategy for this level (one per CPU player).
+     */
+    public CpuStrategy newStrategy() {
+        switch (this) {
+            case HARD:
+                return new HardCpu();
+            case EXPERT:
+                return new ExpertCpu();
+            case MASTER:
+                return new MasterCpu();
+            default:
+                return new EasyCpu(java.util.random.RandomGenerator.of(RollADice.DEFAULT_ALGORITHM));
+        }
+    }
+
+    /**
+     * Labels in drop-down order.
+     */
+    public static String[] labels() {
+        Difficulty[] values = values();
+        String[] labels = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            labels[i] = values[i].label;
+        }
+        return labels;
+    }
+
+    /**
+     * Looks up a level by its drop-down label; unknown labels fall back to EASY.
+     */
+    public static Difficulty fromLabel(String label) {
+        for (Difficulty d : values()) {
+            if (d.label.equals(label)) {
+                return d;
+            }
+        }
+        return EASY;
+    }
+}
@@ -1,9 +1,13 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.swing.*;
 
 public class DisplaySettings extends JFrame implements ActionListener {
     private JComboBox<String> modeBox;
+    private JCheckBox fullFrameBox;
     private JButton applyButton, cancelButton;
     private JPanel previewPanel;
 
@@ -47,6 +51,12 @@ public class DisplaySettings extends JFrame implements ActionListener {
         selectionPanel.add(modeBox);
         centerPanel.add(selectionPanel, BorderLayout.NORTH);
 
+        // Filter every pixel of the game windows instead of recoloring each widget
+        fullFrameBox = new JCheckBox("Filter whole window", ColorBlindnessFilter.isFullFrame());
+        fullFrameBox.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        fullFrameBox.setHorizontalAlignment(SwingConstants.CENTER);
+        centerPanel.add(fullFrameBox, BorderLayout.SOUTH);
+
         previewPanel = new JPanel();
         previewPanel.setPreferredSize(new Dimension(300, 150));
         previewPanel.setBorder(BorderFactory.createTitledBorder("Preview"));
@@ -110,6 +120,11 @@ public class DisplaySettings extends JFrame implements ActionListener {
             } else if ("Rainbow Surprise".equals(selectedMode)) {
                 ColorBlindnessFilter.setMode(ColorBlindnessFilter.Mode.ANOMALOUS_TRICHROMACY);
             }
+            ColorBlindnessFilter.setFullFrame(fullFrameBox.isSelected());
+            // Show the new colors everywhere right away
+            for (Window window : Window.getWindows()) {
+                window.repaint();
+            }
             JOptionPane.showMessageDialog(this, "Display settings applied: " + selectedMode,
                 "Settings Applied", JOptionPane.INFORMATION_MESSAGE);
             dispose();
@@ -118,7 +133,12 @@ public class DisplaySettings extends JFrame implements ActionListener {
         }
     }
 
-    // Inner static class for simulating color blindness effects
+    // Inner static class for simulating color blindness effects.
+    // transformColor is a palette lookup: every mode has its own table, filled up front with every
+    // color the game draws with (others are added the first time they're asked for).
+    // With full-frame filtering on, ColorFilterLayer recolors whole windows instead and the widget
+    // palette is the identity. The mode, that flag and the palette are swapped in one volatile
+    // write, so a paint never sees half of a settings change.
     public static class ColorBlindnessFilter {
         public enum Mode {
             NORMAL,
@@ -126,12 +146,37 @@ public class DisplaySettings extends JFrame implements ActionListener {
             DICHROMACY,
             ANOMALOUS_TRICHROMACY
         }
-        private static Mode currentMode = Mode.NORMAL;
-        public static void setMode(Mode mode) {
-            currentMode = mode;
+        // Colors outside the game's own stop being cached past this many per mode
+        private static final int MAX_CACHED = 1024;
+        private static final Palette[] PALETTES = new Palette[Mode.values().length];
+        static {
+            List<Color> gameColors = gameColors();
+            for (Mode mode : Mode.values()) {
+                PALETTES[mode.ordinal()] = new Palette(mode, gameColors);
+            }
+        }
+        private static volatile Setting current = new Setting(Mode.NORMAL, false);
+        public static synchronized void setMode(Mode mode) {
+            current = new Setting(mode, current.fullFrame);
+        }
+        public static synchronized void setFullFrame(boolean fullFrame) {
+            current = new Setting(current.mode, fullFrame);
         }
+        // The mode picked in the settings
         public static Mode getMode() {
-            return currentMode;
+            return current.mode;
+        }
+        public static boolean isFullFrame() {
+            return current.fullFrame;
+        }
+        // The mode transformColor applies (NORMAL while the whole frame is filtered)
+        public static Mode getWidgetMode() {
+            return current.widgets.mode;
+        }
+        // The mode ColorFilterLayer applies (NORMAL unless the whole frame is filtered)
+        public static Mode getFrameMode() {
+            Setting setting = current;
+            return setting.fullFrame ? setting.mode : Mode.NORMAL;
         }
         // Mono Magic: Convert to grayscale
         public static Color applyMonochromacy(Color color) {
@@ -157,7 +202,11 @@ public class DisplaySettings extends JFrame implements ActionListener {
             return new Color(clamp(r), clamp(g), clamp(b));
         }
         public static Color transformColor(Color color) {
-            switch(currentMode) {
+            return current.widgets.get(color);
+        }
+        // The uncached math behind the palettes (and ColorFilterLayer's tables)
+        static Color transform(Mode mode, Color color) {
+            switch(mode) {
                 case MONOCHROMACY:
                     return applyMonochromacy(color);
                 case DICHROMACY:
@@ -171,6 +220,56 @@ public class DisplaySettings extends JFrame implements ActionListener {
         private static int clamp(int value) {
             return Math.max(0, Math.min(255, value));
         }
+        // Player colors (and their darker bobblehead bodies), board squares, highlight, skin tone
+        private static List<Color> gameColors() {
+            List<Color> colors = new ArrayList<>();
+            for (String name : PlayerColors.NAMES) {
+                colors.add(PlayerColors.get(name));
+                colors.add(PlayerColors.get(name).darker());
+            }
+            colors.add(Color.GRAY);
+            colors.add(Color.GRAY.darker());
+            for (Color color : BoardCanvas.SQUARE_COLORS) {
+                colors.add(color);
+            }
+            colors.add(BoardCanvas.HIGHLIGHT);
+            colors.add(BobbleheadPanel.SKIN);
+            return colors;
+        }
+        private static final class Setting {
+            final Mode mode;
+            final boolean fullFrame;
+            final Palette widgets;
+            Setting(Mode mode, boolean fullFrame) {
+                this.mode = mode;
+                this.fullFrame = fullFrame;
+                this.widgets = PALETTES[(fullFrame ? Mode.NORMAL : mode).ordinal()];
+            }
+        }
+        // One mode's transformed colors, keyed by the original (Color's equals/hashCode are its RGB value)
+        private static final class Palette {
+            final Mode mode;
+            final ConcurrentHashMap<Color, Color> colors = new ConcurrentHashMap<>();
+            Palette(Mode mode, List<Color> gameColors) {
+                this.mode = mode;
+                for (Color color : gameColors) {
+                    colors.put(color, transform(mode, color));
+                }
+            }
+            Color get(Color color) {
+                if (mode == Mode.NORMAL) {
+                    return color;
+                }
+                Color transformed = colors.get(color);
+                if (transformed == null) {
+                    transformed = transform(mode, color);
+                    if (colors.size() < MAX_CACHED) {
+                        colors.putIfAbsent(color, transformed);
+                    }
+                }
+                return transformed;
+            }
+        }
     }
 
     public static void main(String[] args) {
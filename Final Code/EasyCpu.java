@@ -0,0 +1,24 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Easy CPU: keeps its first roll and plays a random legal square
+ * for the first subset (fewest dice) that has one.
+ */
+public class EasyCpu implements CpuStrategy {
+
+    private final RandomGenerator random;
+
+    public EasyCpu(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public int chooseHold(GameState state, int[] diceValues, int rollCount) {
+        return STOP_ROLLING;
+    }
+
+    @Override
+    public int chooseMove(GameState state, int[] diceValues, MoveGenerator moves, int moveCount, long deadlineMillis) {
+        return random.nextInt(moves.runLength(0));
+    }
+}
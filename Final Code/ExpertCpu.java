@@ -0,0 +1,40 @@
+/**
+ * Expert CPU: plans which dice to keep across all three rolls (ExpertPlanner),
+ * then plays the highest-scoring square over every subset of the final dice.
+ * Both steps value squares under the game's scoring rule: under LINES a square is worth
+ * what it adds to the CPU's runs (GameState.bestGainByType for the holds).
+ */
+public class ExpertCpu implements CpuStrategy {
+
+    private final ExpertPlanner planner = new ExpertPlanner();
+
+    @Override
+    public int chooseHold(GameState state, int[] diceValues, int rollCount) {
+        return planner.chooseHold(diceValues, RollADice.MAX_ROLLS - rollCount, state);
+    }
+
+    @Override
+    public int chooseMove(GameState state, int[] diceValues, MoveGenerator moves, int moveCount, long deadlineMillis) {
+        if (state.getRule() != ScoringRule.LINES) {
+            return HardCpu.bestPointsMove(state, moves, moveCount);
+        }
+        // Most gain; among equals (e.g. no run of its own to join yet) the square worth most,
+        // since every later run through it counts its points
+        int chosen = 0;
+        int chosenGain = state.scoreGain(moves.getCell(0));
+        for (int m = 1; m < moveCount; m++) {
+            int cell = moves.getCell(m);
+            int gain = state.scoreGain(cell);
+            if (gain > chosenGain
+                    || (gain == chosenGain && squarePoints(state, cell) > squarePoints(state, moves.getCell(chosen)))) {
+                chosen = m;
+                chosenGain = gain;
+            }
+        }
+        return chosen;
+    }
+
+    private static int squarePoints(GameState state, int cell) {
+        return state.getBoard().getSquareType(cell).getPoints();
+    }
+}
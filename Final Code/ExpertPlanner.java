@@ -0,0 +1,200 @@
+/**
+ * Expectimax planner for the Expert CPU:
+ * - Decides which dice to keep before each reroll, looking ahead over every remaining roll
+ * - The value of a final roll is the most points any selection of it can score on a
+ *   square type that still has an empty cell
+ * - Uses the exact transition tables in DiceOutcomes (no sampling)
+ *
+ * The whole value table depends only on which square types are still open (or, for other
+ * scoring rules, on what each type is worth), so it is rebuilt at most once per board change
+ * (a few tens of thousands of multiply-adds).
+ * Not thread-safe: use one planner per thread.
+ */
+public class ExpertPlanner {
+
+    public static final int MAX_REROLLS = 2;
+
+    // rollValue[r][m]: expected points holding full roll m optimally with r rerolls left
+    private final double[][] rollValue = new double[MAX_REROLLS + 1][DiceOutcomes.FULL_ROLL_COUNT];
+    // keepValue[r][k]: expected points after keeping multiset k (dense index) and rerolling the rest, r rerolls left
+    private final double[][] keepValue = new double[MAX_REROLLS + 1][DiceOutcomes.MULTISET_COUNT];
+
+    private int preparedTypes = -1;
+    // Points per square type (by ordinal, 0 = closed) the tables were built for
+    private int[] preparedValues;
+
+    /**
+     * Chooses which dice to keep for the next roll.
+     * Returns a selection mask (bit i = keep die i); 63 means keep everything, i.e. stop rolling.
+     */
+    public int chooseHold(int[] diceValues, int rerollsLeft, int openTypes) {
+        prepare(openTypes);
+        return bestHold(diceValues, rerollsLeft);
+    }
+
+    /**
+     * Same, valuing squares under state's scoring rule (see prepare(GameState)).
+     */
+    public int chooseHold(int[] diceValues, int rerollsLeft, GameState state) {
+        prepare(state);
+        return bestHold(diceValues, rerollsLeft);
+    }
+
+    private int bestHold(int[] diceValues, int rerollsLeft) {
+        if (rerollsLeft <= 0) {
+            return 63;
+        }
+        int rolls = Math.min(rerollsLeft, MAX_REROLLS);
+        int fullKey = keyOfAll(diceValues);
+        int[] subs = DiceOutcomes.subMultisets(DiceOutcomes.fullRollIndex(fullKey));
+
+        // Start from "keep everything" so ties favour stopping
+        int bestKeep = DiceOutcomes.indexOf(fullKey);
+        double best = keepValue[rolls][bestKeep];
+        for (int i = 0; i < subs.length; i++) {
+            double value = keepValue[rolls][subs[i]];
+            if (value > best + 1e-12) {
+                best = value;
+                bestKeep = subs[i];
+            }
+        }
+        return maskForKeep(diceValues, DiceOutcomes.keyAt(bestKeep));
+    }
+
+    /**
+     * Expected points of these six dice when played optimally with rerollsLeft rerolls remaining.
+     */
+    public double expectedPoints(int[] diceValues, int rerollsLeft, int openTypes) {
+        prepare(openTypes);
+        return rollValue(diceValues, rerollsLeft);
+    }
+
+    /**
+     * Same, valuing squares under state's scoring rule (see prepare(GameState)).
+     */
+    public double expectedPoints(int[] diceValues, int rerollsLeft, GameState state) {
+        prepare(state);
+        return rollValue(diceValues, rerollsLeft);
+    }
+
+    private double rollValue(int[] diceValues, int rerollsLeft) {
+        int rolls = Math.max(0, Math.min(rerollsLeft, MAX_REROLLS));
+        return rollValue[rolls][DiceOutcomes.fullRollIndex(keyOfAll(diceValues))];
+    }
+
+    /**
+     * Expected points after keeping the dice encoded by keptKey and rerolling the others.
+     */
+    public double expectedPointsForKeep(int keptKey, int rerollsLeft, int openTypes) {
+        prepare(openTypes);
+        int rolls = Math.max(0, Math.min(rerollsLeft, MAX_REROLLS));
+        return keepValue[rolls][DiceOutcomes.indexOf(keptKey)];
+    }
+
+    /**
+     * Builds the value tables for this set of open square types (no-op if unchanged).
+     */
+    public void prepare(int openTypes) {
+        if (openTypes == preparedTypes) {
+            return;
+        }
+        int[] typeValues = new int[SquareType.count()];
+        for (SquareType type : SquareType.values()) {
+            if ((openTypes & type.bit()) != 0) {
+                typeValues[type.ordinal()] = type.getPoints();
+            }
+        }
+        build(typeValues);
+        preparedTypes = openTypes;
+    }
+
+    /**
+     * Builds the value tables for state's open squares as its scoring rule values them: their
+     * points under SQUARES, the best gain per type (GameState.bestGainByType) under LINES.
+     */
+    public void prepare(GameState state) {
+        if (state.getRule() == ScoringRule.LINES) {
+            prepare(state.bestGainByType());
+        } else {
+            prepare(state.getBoard().getOpenTypes());
+        }
+    }
+
+    /**
+     * Builds the value tables for squares worth typeValues[type ordinal] (0 = none open),
+     * e.g. the best gain of each type's empty cells under ScoringRule.LINES (no-op if unchanged).
+     */
+    public void prepare(int[] typeValues) {
+        if (preparedTypes < 0 && java.util.Arrays.equals(typeValues, preparedValues)) {
+            return;
+        }
+        build(typeValues);
+        preparedTypes = -1;
+    }
+
+    private void build(int[] typeValues) {
+        preparedValues = typeValues.clone();
+
+        // No rerolls left: best square the final dice can reach
+        for (int m = 0; m < DiceOutcomes.FULL_ROLL_COUNT; m++) {
+            rollValue[0][m] = maxValue(DiceOutcomes.reachableTypes(m), typeValues);
+        }
+        for (int r = 1; r <= MAX_REROLLS; r++) {
+            // Chance layer: keep k, roll the remaining dice
+            for (int k = 0; k < DiceOutcomes.MULTISET_COUNT; k++) {
+                int keptKey = DiceOutcomes.keyAt(k);
+                int toRoll = 6 - DiceOutcomes.sizeAt(k);
+                double expected = 0;
+                for (int i = 0; i < DiceOutcomes.outcomeCount(toRoll); i++) {
+                    int resultKey = keptKey + DiceOutcomes.outcomeKey(toRoll, i);
+                    expected += DiceOutcomes.outcomeProbability(toRoll, i)
+                            * rollValue[r - 1][DiceOutcomes.fullRollIndex(resultKey)];
+                }
+                keepValue[r][k] = expected;
+            }
+            // Decision layer: pick the best sub-multiset to keep
+            for (int m = 0; m < DiceOutcomes.FULL_ROLL_COUNT; m++) {
+                int[] subs = DiceOutcomes.subMultisets(m);
+                double best = 0;
+                for (int i = 0; i < subs.length; i++) {
+                    if (keepValue[r][subs[i]] > best) {
+                        best = keepValue[r][subs[i]];
+                    }
+                }
+                rollValue[r][m] = best;
+            }
+        }
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static int maxValue(int typeBits, int[] typeValues) {
+        int best = 0;
+        while (typeBits != 0) {
+            int t = Integer.numberOfTrailingZeros(typeBits);
+            typeBits &= typeBits - 1;
+            best = Math.max(best, typeValues[t]);
+        }
+        return best;
+    }
+
+    private static int keyOfAll(int[] diceValues) {
+        return PlacementTable.keyOf(diceValues, 63);
+    }
+
+    /**
+     * Picks dice indices whose faces make up keptKey.
+     */
+    static int maskForKeep(int[] diceValues, int keptKey) {
+        int mask = 0;
+        int remaining = keptKey;
+        for (int i = 0; i < 6; i++) {
+            int face = diceValues[i];
+            if (DiceOutcomes.count(remaining, face) > 0) {
+                mask |= 1 << i;
+                remaining -= PlacementTable.FACE_WEIGHT[face];
+            }
+        }
+        return mask;
+    }
+}
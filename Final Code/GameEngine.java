@@ -0,0 +1,366 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Event-sourced game engine (no Swing):
+ * - Every action is an event (roll, toggle, hold, place, end turn, timeout) appended to a
+ *   log of ints; the game state (GameState + dice + the stone placed this turn) is just
+ *   those events applied in order
+ * - Rolls are logged with their faces, so replaying a log never needs the dice generator
+ * - Listeners hear about every event after it is applied (the UI, saving, spectators...)
+ * - undo() and replay(n) rebuild the state from the log, which is a few hundred events
+ *   even for a long game
+ * - save/load write the setup and the log as text (same style as BoardLayout files)
+ *
+ * Not thread-safe: KiviGameplay only uses it on the EDT.
+ */
+public class GameEngine {
+
+    // Event types (low 4 bits of an event)
+    public static final int ROLL = 1;      // payload: the six faces, 3 bits each
+    public static final int TOGGLE = 2;    // payload: die index
+    public static final int HOLD = 3;      // payload: selection mask
+    public static final int PLACE = 4;     // payload: cell (the stone can still move until the turn ends)
+    public static final int END_TURN = 5;  // no payload
+    public static final int TIMEOUT = 6;   // no payload; the turn clock ended the turn
+
+    private static final String[] TYPE_NAMES = { "", "roll", "toggle", "hold", "place", "end", "timeout" };
+
+    /**
+     * Hears about every event once it is applied, and onRebuild after undo() rewinds the state.
+     */
+    public interface Listener {
+        void onEvent(GameEngine engine, int event);
+
+        default void onRebuild(GameEngine engine) {
+        }
+    }
+
+    private final BoardLayout layout;
+    private final int[] startingStones;
+    private final ScoringRule rule;
+    private final RandomGenerator random;
+
+    private final GameState state;
+    private final RollADice dice;
+    private int pendingCell = -1;
+
+    private int[] log = new int[256];
+    private int eventCount;
+
+    private final int[] rollScratch = new int[6];
+    private final List<Listener> listeners = new ArrayList<>();
+
+    public GameEngine(BoardLayout layout, int[] startingStones, ScoringRule rule, RandomGenerator random) {
+        this.layout = layout;
+        this.startingStones = startingStones.clone();
+        this.rule = rule;
+        this.random = random;
+        this.state = new GameState(layout.newBoard(startingStones.length), startingStones, rule);
+        this.dice = new RollADice(random);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // -------------------- Actions --------------------
+
+    /**
+     * Rolls the dice that aren't kept (all of them on the first roll).
+     */
+    public void roll() {
+        if (dice.getRollCount() >= RollADice.MAX_ROLLS) {
+            throw new IllegalStateException("No rolls left this turn");
+        }
+        System.arraycopy(dice.getDiceValues(), 0, rollScratch, 0, 6);
+        RollADice.fillDice(random, rollScratch, dice.getRerollMask());
+        int faces = 0;
+        for (int i = 0; i < 6; i++) {
+            faces |= (rollScratch[i] - 1) << (3 * i);
+        }
+        append(ROLL | faces << 4);
+    }
+
+    public void toggle(int die) {
+        if (dice.getRollCount() == 0) {
+            throw new IllegalStateException("Nothing to toggle before the first roll");
+        }
+        append(TOGGLE | die << 4);
+    }
+
+    /**
+     * Selects exactly the dice in mask (bit i = die i), e.g. a CPU's hold.
+     */
+    public void hold(int mask) {
+        if (dice.getRollCount() == 0) {
+            throw new IllegalStateException("Nothing to hold before the first roll");
+        }
+        append(HOLD | (mask & 63) << 4);
+    }
+
+    /**
+     * Puts this turn's stone on cell (moving it if it was already placed). The selected dice
+     * must fit the square; the stone only counts once the turn ends.
+     */
+    public void place(int cell) {
+        int key = dice.getSelectedKey();
+        if (dice.getRollCount() == 0 || key == 0 || state.getBoard().isOccupied(cell)
+                || !state.getBoard().getSquareType(cell).isSatisfiedBy(key)) {
+            throw new IllegalStateException("Cell " + cell + " can't take the selected dice");
+        }
+        append(PLACE | cell << 4);
+    }
+
+    /**
+     * Ends the turn (the placed stone, if any, goes down for good); timedOut if the clock ran out.
+     */
+    public void endTurn(boolean timedOut) {
+        append(timedOut ? TIMEOUT : END_TURN);
+    }
+
+    /**
+     * Takes back the last event. Returns false if the log is empty.
+     */
+    public boolean undo() {
+        if (eventCount == 0) {
+            return false;
+        }
+        rebuild(eventCount - 1);
+        return true;
+    }
+
+    /**
+     * A new engine holding the first count events of this one (for replays and spectating;
+     * this engine is not changed).
+     */
+    public GameEngine replay(int count) {
+        GameEngine copy = new GameEngine(layout, startingStones, rule, RandomGenerator.of(RollADice.DEFAULT_ALGORITHM));
+        for (int i = 0; i < count; i++) {
+            copy.append(log[i]);
+        }
+        return copy;
+    }
+
+    // -------------------- Events --------------------
+
+    private void append(int event) {
+        if (eventCount == log.length) {
+            log = java.util.Arrays.copyOf(log, log.length * 2);
+        }
+        log[eventCount++] = event;
+        apply(event);
+        for (Listener listener : listeners) {
+            listener.onEvent(this, event);
+        }
+    }
+
+    // The fold: the only place state changes
+    private void apply(int event) {
+        switch (type(event)) {
+            case ROLL:
+                for (int i = 0; i < 6; i++) {
+                    rollScratch[i] = face(event, i);
+                }
+                dice.applyRoll(rollScratch);
+                pendingCell = -1;
+                break;
+            case TOGGLE:
+                dice.toggleDieSelection(payload(event));
+                break;
+            case HOLD:
+                dice.setSelectionMask(payload(event));
+                break;
+            case PLACE:
+                pendingCell = payload(event);
+                break;
+            case END_TURN:
+            case TIMEOUT:
+                if (pendingCell >= 0) {
+                    state.placeStone(pendingCell);
+                    pendingCell = -1;
+                }
+                state.nextPlayer();
+                dice.resetForNextTurn();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event " + event);
+        }
+    }
+
+    // Back to the start, then the first count events again
+    private void rebuild(int count) {
+        state.reset();
+        dice.resetForNextTurn();
+        pendingCell = -1;
+        eventCount = count;
+        for (int i = 0; i < count; i++) {
+            apply(log[i]);
+        }
+        for (Listener listener : listeners) {
+            listener.onRebuild(this);
+        }
+    }
+
+    public static int type(int event) {
+        return event & 15;
+    }
+
+    public static int payload(int event) {
+        return event >>> 4;
+    }
+
+    /**
+     * Face (1-6) of die i in a ROLL event.
+     */
+    public static int face(int event, int die) {
+        return (payload(event) >>> (3 * die) & 7) + 1;
+    }
+
+    // -------------------- File --------------------
+
+    /**
+     * Writes the setup and every event as text; comments go on "# " lines at the top.
+     */
+    public void save(Path file, String... comments) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (String comment : comments) {
+            text.append("# ").append(comment).append('\n');
+        }
+        text.append("scoring ").append(rule.getLabel()).append('\n');
+        text.append("stones");
+        for (int stones : startingStones) {
+            text.append(' ').append(stones);
+        }
+        text.append('\n');
+        text.append(layout.format());
+        text.append("events\n");
+        for (int i = 0; i < eventCount; i++) {
+            text.append(format(log[i])).append('\n');
+        }
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a saved game and replays it; throws IllegalArgumentException on a malformed file.
+     */
+    public static GameEngine load(Path file, RandomGenerator random) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        ScoringRule rule = ScoringRule.SQUARES;
+        int[] stones = null;
+        List<String> layoutLines = new ArrayList<>();
+        int line = 0;
+        for (; line < lines.size(); line++) {
+            String trimmed = lines.get(line).trim();
+            if (trimmed.equals("events")) {
+                break;
+            } else if (trimmed.startsWith("scoring ")) {
+                rule = ScoringRule.fromLabel(trimmed.substring("scoring ".length()).trim());
+            } else if (trimmed.startsWith("stones ")) {
+                String[] tokens = trimmed.split("\\s+");
+                stones = new int[tokens.length - 1];
+                for (int i = 1; i < tokens.length; i++) {
+                    stones[i - 1] = Integer.parseInt(tokens[i]);
+                }
+            } else {
+                layoutLines.add(trimmed);
+            }
+        }
+        if (stones == null || line == lines.size()) {
+            throw new IllegalArgumentException(file + " is not a saved Kivi game");
+        }
+        GameEngine engine = new GameEngine(BoardLayout.parse(layoutLines), stones, rule, random);
+        for (line++; line < lines.size(); line++) {
+            String trimmed = lines.get(line).trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                engine.append(parse(trimmed));
+            }
+        }
+        return engine;
+    }
+
+    private static String format(int event) {
+        StringBuilder text = new StringBuilder(TYPE_NAMES[type(event)]);
+        switch (type(event)) {
+            case ROLL:
+                for (int i = 0; i < 6; i++) {
+                    text.append(' ').append(face(event, i));
+                }
+                break;
+            case TOGGLE:
+            case HOLD:
+            case PLACE:
+                text.append(' ').append(payload(event));
+                break;
+            default:
+                break;
+        }
+        return text.toString();
+    }
+
+    private static int parse(String line) {
+        String[] tokens = line.split("\\s+");
+        for (int type = 1; type < TYPE_NAMES.length; type++) {
+            if (!TYPE_NAMES[type].equals(tokens[0])) {
+                continue;
+            }
+            if (type == ROLL) {
+                int faces = 0;
+                for (int i = 0; i < 6; i++) {
+                    faces |= (Integer.parseInt(tokens[i + 1]) - 1) << (3 * i);
+                }
+                return ROLL | faces << 4;
+            }
+            return tokens.length > 1 ? type | Integer.parseInt(tokens[1]) << 4 : type;
+        }
+        throw new IllegalArgumentException("Unknown event: " + line);
+    }
+
+    // -------------------- Getters --------------------
+
+    /**
+     * The game so far (committed stones, scores, whose turn). Read-only: change it through the actions.
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * This turn's dice. Read-only, like getState().
+     */
+    public RollADice getDice() {
+        return dice;
+    }
+
+    /**
+     * Cell of the stone placed this turn, or -1.
+     */
+    public int getPendingCell() {
+        return pendingCell;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getEvent(int index) {
+        return log[index];
+    }
+
+    public BoardLayout getLayout() {
+        return layout;
+    }
+
+    public boolean isGameOver() {
+        return state.isGameOver();
+    }
+}
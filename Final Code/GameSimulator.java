@@ -0,0 +1,61 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays whole CPU-vs-CPU games with no Swing, using the same pieces as KiviGameplay:
+ * - RollADice for rolls and holds (up to 3 rolls per turn)
+ * - MoveGenerator for the legal moves of the final dice
+ * - GameState for placing stones, scoring and the end of the game
+ *
+ * Not thread-safe: use one simulator (and one set of strategies) per thread.
+ */
+public class GameSimulator {
+
+    // Safety net: a turn always has some chance to place, but don't loop forever
+    private static final int MAX_TURNS = 1000;
+
+    private final int boardSize;
+    private final SquareType[] layout;
+    private final int stonesPerPlayer;
+    private final RollADice dice;
+    private final MoveGenerator moves = new MoveGenerator();
+
+    public GameSimulator(int boardSize, SquareType[] layout, int stonesPerPlayer, RandomGenerator random) {
+        this.boardSize = boardSize;
+        this.layout = layout;
+        this.stonesPerPlayer = stonesPerPlayer;
+        this.dice = new RollADice(random);
+    }
+
+    /**
+     * Plays one game, seats[i] playing as player i (player 0 starts).
+     * Search-based strategies get thinkMillis per move. Returns the final state.
+     */
+    public GameState play(CpuStrategy[] seats, long thinkMillis) {
+        GameState state = new GameState(new BoardState(boardSize, layout, seats.length), stonesPerPlayer);
+        for (int turn = 0; turn < MAX_TURNS && !state.isGameOver(); turn++) {
+            playTurn(state, seats[state.getCurrentPlayer()], thinkMillis);
+            state.nextPlayer();
+        }
+        return state;
+    }
+
+    private void playTurn(GameState state, CpuStrategy strategy, long thinkMillis) {
+        dice.resetForNextTurn();
+        dice.rollDice();
+        while (dice.getRollCount() < RollADice.MAX_ROLLS) {
+            int keep = strategy.chooseHold(state, dice.getDiceValues(), dice.getRollCount());
+            if (keep == CpuStrategy.STOP_ROLLING) {
+                break;
+            }
+            dice.setSelectionMask(keep);
+            dice.rollDice();
+        }
+
+        int moveCount = moves.generate(state.getBoard(), dice.getDiceValues());
+        if (moveCount > 0) {
+            long deadline = System.currentTimeMillis() + thinkMillis;
+            int chosen = strategy.chooseMove(state, dice.getDiceValues(), moves, moveCount, deadline);
+            state.placeStone(moves.getCell(chosen));
+        }
+    }
+}
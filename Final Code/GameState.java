@@ -0,0 +1,226 @@
+/**
+ * Headless game state (no Swing), owned by KiviGameplay and copied by the AI:
+ * - The board (BoardState)
+ * - Each player's score and stones left (each player has their own pool, so seats can
+ *   start with different counts)
+ * - The scoring rule: square points are summed as stones go down, and the rulebook's line
+ *   scores are kept by a LineScorer at the same time, so both are always current
+ * - Whose turn it is
+ *
+ * Everything is per-player arrays, so any number of seats (up to MAX_PLAYERS) costs the same per move.
+ * How many players still have stones is kept as a counter (and the board counts its stones), so
+ * isGameOver() is two comparisons.
+ */
+public class GameState {
+
+    public static final int DEFAULT_STONES = 10;
+    public static final int MIN_PLAYERS = 2;
+    public static final int MAX_PLAYERS = 8;
+
+    private final BoardState board;
+    private final int[] startingStones;
+    private final ScoringRule rule;
+    private final LineScorer lines;
+    private final int[] scores;
+    private final int[] stonesLeft;
+    private int playersWithStones;
+    private int currentPlayer;
+
+    /**
+     * Every player starts with stonesPerPlayer stones.
+     */
+    public GameState(BoardState board, int stonesPerPlayer) {
+        this(board, sameStones(board.getPlayerCount(), stonesPerPlayer));
+    }
+
+    /**
+     * Player i starts with startingStones[i] stones (one entry per player on the board);
+     * square points decide the game.
+     */
+    public GameState(BoardState board, int[] startingStones) {
+        this(board, startingStones, ScoringRule.SQUARES);
+    }
+
+    /**
+     * Player i starts with startingStones[i] stones, and rule decides what getScore() returns.
+     * Needs MIN_PLAYERS to MAX_PLAYERS players, each with at least one stone (a player
+     * without stones would make the game over before it starts).
+     */
+    public GameState(BoardState board, int[] startingStones, ScoringRule rule) {
+        int playerCount = board.getPlayerCount();
+        if (playerCount < MIN_PLAYERS || playerCount > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Between " + MIN_PLAYERS + " and " + MAX_PLAYERS
+                    + " players, got " + playerCount);
+        }
+        if (startingStones.length != playerCount) {
+            throw new IllegalArgumentException("Need a stone count for each of the " + playerCount + " players");
+        }
+        for (int i = 0; i < playerCount; i++) {
+            if (startingStones[i] <= 0) {
+                throw new IllegalArgumentException("Player " + (i + 1) + " needs at least one stone, got "
+                        + startingStones[i]);
+            }
+        }
+        this.board = board;
+        this.startingStones = startingStones.clone();
+        this.rule = rule;
+        this.lines = new LineScorer(board);
+        this.scores = new int[playerCount];
+        this.stonesLeft = startingStones.clone();
+        this.playersWithStones = playerCount;
+        this.currentPlayer = 0;
+    }
+
+    private GameState(GameState other) {
+        this.board = other.board.copy();
+        this.startingStones = other.startingStones;
+        this.rule = other.rule;
+        this.lines = other.lines.copy();
+        this.scores = other.scores.clone();
+        this.stonesLeft = other.stonesLeft.clone();
+        this.playersWithStones = other.playersWithStones;
+        this.currentPlayer = other.currentPlayer;
+    }
+
+    public GameState copy() {
+        return new GameState(this);
+    }
+
+    /**
+     * Overwrites this state with other (same board size and player count), without allocating.
+     */
+    public void copyFrom(GameState other) {
+        board.copyFrom(other.board);
+        lines.copyFrom(other.lines);
+        System.arraycopy(other.scores, 0, scores, 0, scores.length);
+        System.arraycopy(other.stonesLeft, 0, stonesLeft, 0, stonesLeft.length);
+        playersWithStones = other.playersWithStones;
+        currentPlayer = other.currentPlayer;
+    }
+
+    /**
+     * Back to the start of a game (empty board, no points, full stones, player 0 to move),
+     * without allocating.
+     */
+    public void reset() {
+        board.clear();
+        lines.clear();
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = 0;
+            stonesLeft[i] = startingStones[i];
+        }
+        playersWithStones = scores.length;
+        currentPlayer = 0;
+    }
+
+    /**
+     * The current player puts a stone on cell and scores for it (both rules).
+     */
+    public void placeStone(int cell) {
+        board.place(currentPlayer, cell);
+        lines.place(currentPlayer, cell);
+        scores[currentPlayer] += board.getSquareType(cell).getPoints();
+        if (--stonesLeft[currentPlayer] == 0) {
+            playersWithStones--;
+        }
+    }
+
+    /**
+     * Passes the turn to the next player.
+     */
+    public void nextPlayer() {
+        currentPlayer = (currentPlayer + 1) % scores.length;
+    }
+
+    /**
+     * The game ends as soon as any player has used all their stones, or the board is full.
+     */
+    public boolean isGameOver() {
+        return playersWithStones < stonesLeft.length || board.isFull();
+    }
+
+    /**
+     * Player with the highest score (the first one on ties).
+     */
+    public int getWinner() {
+        int winner = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (getScore(i) > getScore(winner)) {
+                winner = i;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * How much the current player's score (under the rule) would go up with a stone on the empty cell.
+     */
+    public int scoreGain(int cell) {
+        return rule == ScoringRule.LINES ? lines.gain(currentPlayer, cell) : board.getSquareType(cell).getPoints();
+    }
+
+    /**
+     * Per square type (by ordinal): the most scoreGain among its empty cells, 0 if it has none.
+     * This is what a square of each type is worth to the current player this turn
+     * (for ExpertPlanner.prepare(int[])).
+     */
+    public int[] bestGainByType() {
+        int[] gains = new int[SquareType.count()];
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isOccupied(cell)) {
+                int type = board.getSquareType(cell).ordinal();
+                gains[type] = Math.max(gains[type], scoreGain(cell));
+            }
+        }
+        return gains;
+    }
+
+    // -------------------- Getters --------------------
+
+    public BoardState getBoard() {
+        return board;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getPlayerCount() {
+        return scores.length;
+    }
+
+    /**
+     * Score under the game's rule.
+     */
+    public int getScore(int player) {
+        return rule == ScoringRule.LINES ? lines.getScore(player) : scores[player];
+    }
+
+    public int getSquarePoints(int player) {
+        return scores[player];
+    }
+
+    public int getLineScore(int player) {
+        return lines.getScore(player);
+    }
+
+    public ScoringRule getRule() {
+        return rule;
+    }
+
+    public int getStonesLeft(int player) {
+        return stonesLeft[player];
+    }
+
+    public int getStartingStones(int player) {
+        return startingStones[player];
+    }
+
+    // ---------------------- Helper Methods ----------------------
+
+    private static int[] sameStones(int playerCount, int stones) {
+        int[] counts = new int[playerCount];
+        java.util.Arrays.fill(counts, stones);
+        return counts;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Hard CPU: keeps its first roll and plays the square that scores most
+ * (under the game's scoring rule) for the first subset (fewest dice) that has one.
+ */
+public class HardCpu implements CpuStrategy {
+
+    @Override
+    public int chooseHold(GameState state, int[] diceValues, int rollCount) {
+        return STOP_ROLLING;
+    }
+
+    @Override
+    public int chooseMove(GameState state, int[] diceValues, MoveGenerator moves, int moveCount, long deadlineMillis) {
+        return bestPointsMove(state, moves, moves.runLength(0));
+    }
+
+    /**
+     * Highest-scoring move among the first count moves (the earliest one on ties, i.e. fewest dice).
+     * Under square scoring that is just the most points; under line scoring it counts the runs it joins.
+     */
+    static int bestPointsMove(GameState state, MoveGenerator moves, int count) {
+        int chosen = 0;
+        int chosenGain = state.scoreGain(moves.getCell(0));
+        for (int m = 1; m < count; m++) {
+            int gain = state.scoreGain(moves.getCell(m));
+            if (gain > chosenGain) {
+                chosen = m;
+                chosenGain = gain;
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Hints for a human's turn in progress (no Swing, safe to call off the EDT):
+ * - Which dice to keep for the next roll (ExpertPlanner, over the rerolls left)
+ * - Expected points of each empty cell: what a stone there would score (GameState.scoreGain,
+ *   so runs count under ScoringRule.LINES) times the chance of ending the turn able to fill it
+ *   (DiceProbabilityModel), keeping the dice currently selected
+ * - Under LINES a square type is worth the best gain among its empty cells, for the keep hint too
+ *
+ * Each call is a handful of table lookups (plus ExpertPlanner.prepare when the open
+ * square types change, well under a millisecond). Calls are serialized.
+ */
+public class HintEngine {
+
+    private final ExpertPlanner planner = new ExpertPlanner();
+    private DiceProbabilityModel model;
+
+    /**
+     * Hints for these dice after rollCount rolls; selectedKey is the PlacementTable key of the
+     * dice the player is holding (0 = none, i.e. a reroll would roll all six).
+     */
+    public synchronized Hint compute(GameState state, int[] diceValues, int rollCount, int selectedKey) {
+        if (model == null) {
+            model = DiceProbabilityModel.get();
+        }
+        BoardState board = state.getBoard();
+        int rerollsLeft = RollADice.MAX_ROLLS - rollCount;
+        int nowTypes = DiceOutcomes.reachableTypes(DiceOutcomes.fullRollIndex(PlacementTable.keyOf(diceValues, 63)));
+
+        // Per type: placeable right now, else the chance of getting there from the current hold
+        double[] typeChance = new double[SquareType.count()];
+        for (SquareType type : SquareType.values()) {
+            double chance;
+            if ((nowTypes & type.bit()) != 0) {
+                chance = 1;
+            } else if (rerollsLeft > 0) {
+                chance = model.probability(type, selectedKey, rerollsLeft);
+            } else {
+                chance = 0;
+            }
+            typeChance[type.ordinal()] = chance;
+        }
+        double[] cellPoints = new double[board.getCellCount()];
+        for (int cell = 0; cell < cellPoints.length; cell++) {
+            cellPoints[cell] = board.isOccupied(cell) ? -1
+                    : typeChance[board.getSquareType(cell).ordinal()] * state.scoreGain(cell);
+        }
+
+        int keepMask = planner.chooseHold(diceValues, rerollsLeft, state);
+        double expected = planner.expectedPoints(diceValues, rerollsLeft, state);
+        return new Hint(keepMask, expected, cellPoints);
+    }
+
+    /**
+     * One set of hints; cells that are taken have no value (-1).
+     */
+    public static final class Hint {
+        private final int keepMask;
+        private final double expectedPoints;
+        private final double[] cellPoints;
+
+        Hint(int keepMask, double expectedPoints, double[] cellPoints) {
+            this.keepMask = keepMask;
+            this.expectedPoints = expectedPoints;
+            this.cellPoints = cellPoints;
+        }
+
+        /**
+         * Dice to keep before rerolling (bit i = die i); CpuStrategy.STOP_ROLLING means place now.
+         */
+        public int getKeepMask() {
+            return keepMask;
+        }
+
+        /**
+         * Expected points of the turn when following the keep hints.
+         */
+        public double getExpectedPoints() {
+            return expectedPoints;
+        }
+
+        public double getCellPoints(int cell) {
+            return cellPoints[cell];
+        }
+    }
+}
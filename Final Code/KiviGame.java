@@ -8,20 +8,29 @@ public class KiviGame extends JFrame {
     private JButton startNewGameButton, settingsButton, creditsButton, exitGameButton;
     private JComboBox<String> timerDropdown;
     private JComboBox<String> playerCountDropdown;
-    private JTextField[] playerNameFields = new JTextField[4];
-    private JCheckBox[] humanCheckboxes = new JCheckBox[4];
-    private JCheckBox[] cpuCheckboxes = new JCheckBox[4];
-    private JComboBox<String>[] difficultyDropdowns = new JComboBox[4];
-    private JComboBox<String>[] colorDropdowns = new JComboBox[4];
-    private JPanel[] playerPanels = new JPanel[4];
-    private BobbleheadPanel[] bobbleheads = new BobbleheadPanel[4];
-    private Timer animationTimer;
+    private JComboBox<String> boardSizeDropdown;
+    private JComboBox<String> stonesDropdown;
+    private JComboBox<String> scoringDropdown;
+    private JTextField[] playerNameFields = new JTextField[GameState.MAX_PLAYERS];
+    private JCheckBox[] humanCheckboxes = new JCheckBox[GameState.MAX_PLAYERS];
+    private JCheckBox[] cpuCheckboxes = new JCheckBox[GameState.MAX_PLAYERS];
+    private JComboBox<String>[] difficultyDropdowns = new JComboBox[GameState.MAX_PLAYERS];
+    private JComboBox<String>[] colorDropdowns = new JComboBox[GameState.MAX_PLAYERS];
+    private JPanel[] playerPanels = new JPanel[GameState.MAX_PLAYERS];
+    private BobbleheadPanel[] bobbleheads = new BobbleheadPanel[GameState.MAX_PLAYERS];
+
+    // Player panels: up to four per row, a second row for bigger tables
+    private static final int PANELS_PER_ROW = 4;
+    private static final int PANEL_ROW_HEIGHT = 220;
+    // Bobs the visible bobbleheads; idles while the menu is hidden or minimized
+    private final AnimationClock animationClock = new AnimationClock();
 
     public KiviGame() {
         super("KIVI");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(800, 650);
         initUI();
+        ColorFilterLayer.install(this);
         setLocationRelativeTo(null);
 
         // Initialize with 2 players by default
@@ -57,6 +66,14 @@ public class KiviGame extends JFrame {
         timerDropdown.setBounds(250, 120, 100, 30);
         mainPanel.add(timerDropdown);
 
+        JLabel scoringLabel = new JLabel("Scoring:");
+        scoringLabel.setBounds(610, 120, 55, 30);
+        mainPanel.add(scoringLabel);
+
+        scoringDropdown = new JComboBox<>(ScoringRule.labels());
+        scoringDropdown.setBounds(665, 120, 90, 30);
+        mainPanel.add(scoringDropdown);
+
         instructionManualButton = new JButton("Instruction Manual");
         instructionManualButton.setBounds(450, 120, 150, 30);
         // Add an ActionListener to open the instruction manual
@@ -67,11 +84,37 @@ public class KiviGame extends JFrame {
         playerCountLabel.setBounds(200, 170, 60, 30);
         mainPanel.add(playerCountLabel);
 
-        playerCountDropdown = new JComboBox<>(new String[] { "2", "3", "4" });
+        String[] playerCounts = new String[GameState.MAX_PLAYERS - GameState.MIN_PLAYERS + 1];
+        for (int i = 0; i < playerCounts.length; i++) {
+            playerCounts[i] = String.valueOf(GameState.MIN_PLAYERS + i);
+        }
+        playerCountDropdown = new JComboBox<>(playerCounts);
         playerCountDropdown.setBounds(260, 170, 60, 30);
         playerCountDropdown.addActionListener(e -> updateVisiblePlayers());
         mainPanel.add(playerCountDropdown);
 
+        JLabel boardSizeLabel = new JLabel("Board:");
+        boardSizeLabel.setBounds(485, 170, 45, 30);
+        mainPanel.add(boardSizeLabel);
+
+        String[] boardSizes = new String[BoardLayout.MAX_SIZE - BoardLayout.MIN_SIZE + 1];
+        for (int i = 0; i < boardSizes.length; i++) {
+            int size = BoardLayout.MIN_SIZE + i;
+            boardSizes[i] = size + "x" + size;
+        }
+        boardSizeDropdown = new JComboBox<>(boardSizes);
+        boardSizeDropdown.setBounds(530, 170, 75, 30);
+        mainPanel.add(boardSizeDropdown);
+
+        JLabel stonesLabel = new JLabel("Stones:");
+        stonesLabel.setBounds(615, 170, 50, 30);
+        mainPanel.add(stonesLabel);
+
+        stonesDropdown = new JComboBox<>(new String[] { "5", "10", "15", "20", "25", "30" });
+        stonesDropdown.setSelectedItem(String.valueOf(GameState.DEFAULT_STONES));
+        stonesDropdown.setBounds(665, 170, 55, 30);
+        mainPanel.add(stonesDropdown);
+
         startNewGameButton = new JButton("Start New Game");
         startNewGameButton.setBounds(325, 170, 150, 30);
         startNewGameButton.addActionListener(e -> startNewGame());
@@ -98,30 +141,30 @@ public class KiviGame extends JFrame {
 
     private void updateVisiblePlayers() {
         int count = Integer.parseInt((String) playerCountDropdown.getSelectedItem());
-        for (int i = 0; i < 4; i++) {
+        for (int i = 0; i < GameState.MAX_PLAYERS; i++) {
             if (playerPanels[i] != null) {
                 playerPanels[i].setVisible(i < count);
             }
         }
+        // Push the buttons below the last row of player panels and grow the window to fit
+        int extraRows = (count - 1) / PANELS_PER_ROW;
+        int shift = extraRows * PANEL_ROW_HEIGHT;
+        settingsButton.setLocation(325, 470 + shift);
+        creditsButton.setLocation(325, 510 + shift);
+        exitGameButton.setLocation(325, 550 + shift);
+        setSize(800, 650 + shift);
     }
 
     private void createPlayerPanels(JPanel mainPanel) {
         int panelWidth = 150;
         int panelHeight = 210;
         int spacing = 20;
-        int totalWidth = (panelWidth * 4) + (spacing * 3);
+        int totalWidth = (panelWidth * PANELS_PER_ROW) + (spacing * (PANELS_PER_ROW - 1));
         int startX = (800 - totalWidth) / 2;
-        int yPosition = 220;
 
-        Color[] defaultColors = {
-                new Color(30, 144, 255),
-                new Color(220, 20, 60),
-                new Color(50, 205, 50),
-                new Color(255, 165, 0)
-        };
-
-        for (int i = 0; i < 4; i++) {
-            int xPosition = startX + (i * (panelWidth + spacing));
+        for (int i = 0; i < GameState.MAX_PLAYERS; i++) {
+            int xPosition = startX + ((i % PANELS_PER_ROW) * (panelWidth + spacing));
+            int yPosition = 220 + (i / PANELS_PER_ROW) * PANEL_ROW_HEIGHT;
             playerPanels[i] = new JPanel(null);
             playerPanels[i].setBounds(xPosition, yPosition, panelWidth, panelHeight);
             playerPanels[i].setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
@@ -132,7 +175,7 @@ public class KiviGame extends JFrame {
             playerLabel.setBorder(BorderFactory.createLineBorder(Color.BLACK));
             playerPanels[i].add(playerLabel);
 
-            bobbleheads[i] = new BobbleheadPanel(i, defaultColors[i]);
+            bobbleheads[i] = new BobbleheadPanel(i, PlayerColors.get(PlayerColors.defaultName(i)));
             bobbleheads[i].setBounds(25, 35, 100, 100);
             playerPanels[i].add(bobbleheads[i]);
 
@@ -151,17 +194,10 @@ public class KiviGame extends JFrame {
             cpuCheckboxes[i].setBounds(80, 175, 70, 20);
             playerPanels[i].add(cpuCheckboxes[i]);
 
-            colorDropdowns[i] = new JComboBox<>(new String[] { "Blue", "Red", "Green", "Orange", "Purple", "Black" });
-            if (i == 0)
-                colorDropdowns[i].setSelectedItem("Blue");
-            else if (i == 1)
-                colorDropdowns[i].setSelectedItem("Red");
-            else if (i == 2)
-                colorDropdowns[i].setSelectedItem("Green");
-            else if (i == 3)
-                colorDropdowns[i].setSelectedItem("Orange");
+            colorDropdowns[i] = new JComboBox<>(PlayerColors.NAMES);
+            colorDropdowns[i].setSelectedItem(PlayerColors.defaultName(i));
 
-            difficultyDropdowns[i] = new JComboBox<>(new String[] { "Easy", "Hard" });
+            difficultyDropdowns[i] = new JComboBox<>(Difficulty.labels());
 
             if (i == 0) {
                 humanCheckboxes[i].setSelected(true);
@@ -193,46 +229,35 @@ public class KiviGame extends JFrame {
         String[] playerNames = new String[playerCount];
         Color[] playerColors = new Color[playerCount];
         boolean[] isHuman = new boolean[playerCount];
+        Difficulty[] difficulties = new Difficulty[playerCount];
 
         for (int i = 0; i < playerCount; i++) {
             playerNames[i] = playerNameFields[i].getText();
             isHuman[i] = humanCheckboxes[i].isSelected();
+            difficulties[i] = Difficulty.fromLabel((String) difficultyDropdowns[i].getSelectedItem());
             String colorName = (String) colorDropdowns[i].getSelectedItem();
-            playerColors[i] = getColorFromName(colorName);
+            playerColors[i] = PlayerColors.get(colorName);
         }
 
         String timeString = (String) timerDropdown.getSelectedItem();
         int turnTime = Integer.parseInt(timeString.split(" ")[0]);
 
+        String sizeString = (String) boardSizeDropdown.getSelectedItem();
+        BoardLayout layout = BoardLayout.forSize(Integer.parseInt(sizeString.split("x")[0]));
+        int stonesPerPlayer = Integer.parseInt((String) stonesDropdown.getSelectedItem());
+        ScoringRule scoringRule = ScoringRule.fromLabel((String) scoringDropdown.getSelectedItem());
+
         try {
             UIManager.setLookAndFeel("javax.swing.plaf.metal.MetalLookAndFeel");
         } catch (Exception ex) {
             ex.printStackTrace();
         }
 
-        SwingUtilities.invokeLater(() -> new KiviGameplay(playerCount, playerNames, playerColors, isHuman, turnTime));
+        SwingUtilities.invokeLater(() -> new KiviGameplay(playerCount, playerNames, playerColors, isHuman, turnTime,
+                difficulties, layout, stonesPerPlayer, scoringRule));
         this.setVisible(false);
     }
 
-    private Color getColorFromName(String colorName) {
-        switch (colorName) {
-            case "Blue":
-                return new Color(30, 144, 255);
-            case "Red":
-                return new Color(220, 20, 60);
-            case "Green":
-                return new Color(50, 205, 50);
-            case "Orange":
-                return new Color(255, 165, 0);
-            case "Purple":
-                return new Color(128, 0, 128);
-            case "Black":
-                return Color.BLACK;
-            default:
-                return Color.BLUE;
-        }
-    }
-
     private void openSettingsDialog() {
         JDialog settingsDialog = new JDialog(this, "Settings", true);
         settingsDialog.setSize(300, 150);
@@ -277,22 +302,16 @@ public class KiviGame extends JFrame {
     }
 
     private void startBobbleheadAnimation() {
-        animationTimer = new Timer(50, e -> {
-            for (BobbleheadPanel bobblehead : bobbleheads) {
-                if (bobblehead != null && bobblehead.isVisible()) {
-                    bobblehead.updateAnimation();
-                    bobblehead.repaint();
-                }
+        for (BobbleheadPanel bobblehead : bobbleheads) {
+            if (bobblehead != null) {
+                animationClock.register(bobblehead);
             }
-        });
-        animationTimer.start();
+        }
     }
 
     @Override
     public void dispose() {
-        if (animationTimer != null) {
-            animationTimer.stop();
-        }
+        animationClock.stop();
         super.dispose();
     }
 
@@ -315,7 +334,10 @@ public class KiviGame extends JFrame {
         // Set the game rules text
         textArea.setText(
                 "Kivi draws inspiration from the classic dice game Yachtzee. The game combines\n"
-                        + "Yachtzee's dice with a 7×7 board of 49 squares. Each player has ten stones.\n"
+                        + "Yachtzee's dice with a 7×7 board of 49 squares. Each player has ten stones\n"
+                        + "(the Stones menu changes this), and up to eight can play.\n"
+                        + "(Bigger boards, up to 25×25, have the same mix of squares and can be picked\n"
+                        + "with the Board menu.)\n"
                         + "Unlike Yachtzee (5 dice), Kivi uses 6 dice.\n\n"
                         + "On a turn, a player rolls all 6 dice (with up to two partial or full rethrows)\n"
                         + "and must place a stone on a square matching the final dice combination.\n"
@@ -345,6 +367,7 @@ public class KiviGame extends JFrame {
                         + "Scoring:\n"
                         + "After 10 rounds, stones on the board are scored. Contiguous rows (horizontal or\n"
                         + "vertical) score as (sum of square points) × (length of row). Highest total wins.\n"
+                        + "(Pick \"Lines\" under Scoring for this; \"Squares\" just adds up square points.)\n"
                         + "taken from https://en.everybodywiki.com/Kivi_(board_game)\n");
 
         // Put the text area in a scroll pane
@@ -1,12 +1,13 @@
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.*;
 
 public class KiviGameplay extends JFrame {
+    private static final Logger LOG = Logger.getLogger(KiviGameplay.class.getName());
+
     // Game board components
-    private JPanel gameBoard;
-    private JButton[][] boardSquares;
+    private BoardCanvas boardCanvas;
     private JPanel dicePanel;
     private JButton[] dice;
     private JButton rollDiceButton, endTurnButton;
@@ -14,67 +15,71 @@ public class KiviGameplay extends JFrame {
     private JPanel playerInfoPanel;
     private JLabel currentPlayerLabel, timerLabel;
 
-    // Game state variables
-    private int currentPlayer = 0;
+    // Hint mode (human turns): dice to keep and expected points per empty square
+    private JToggleButton hintButton;
+    private JLabel hintLabel;
+    private javax.swing.border.Border dieBorder;
+    private final HintEngine hintEngine = new HintEngine();
+    private final TurnScheduler hintScheduler = new TurnScheduler();
+
+    // Game state variables (scores, stones, board and turn live in the headless GameState)
+    private GameState gameState;
     private int playerCount;
     private String[] playerNames;
     private Color[] playerColors;
     private boolean[] isHuman;
-    private int[] stonesLeft;
     private int turnTimeTotal; // total time for a turn in seconds
-    private int[] playerScores;
 
     // Timer variables
     private Timer gameTimer;
     private long turnStartTime; // records the system time (in ms) when a turn starts
     private long pauseStartTime = 0; // time when pause is initiated
 
-    // *** DICE LOGIC EXTRACTED TO A NEW CLASS! ***
+    // Every game action goes through the engine's event log; the UI listens (see onGameEvent)
+    private GameEngine engine;
+
+    // *** DICE LOGIC EXTRACTED TO A NEW CLASS! *** (the engine's dice; read-only here)
     private RollADice diceLogic;
 
     // *** NEW CLASS for piece placement logic ***
     private PlaceAPiece placeLogic;
 
-    // Board constants
-    private final int BOARD_SIZE = 7;
-    private final String[] SQUARE_TYPES = {
-        "AA/BB", "ABCDE", "≤12", "AAA", "=1,3,5", "=2,4,6", "AAA",
-        "=2,4,6", "AAAA/BB", "AAA", "AA/BB/CC", "ABCD", "AAA/BBB", "≥30",
-        "ABCD", "AAAA", "≥30", "ABCDE", "AAAA/BB", "=1,3,5", "AAA/BB",
-        "≤12", "AAA/BB", "=2,4,6", "AAA/BBB", "≤12", "AA/BB", "ABCDE",
-        "AAA", "ABCDE", "AA/BB/CC", "=1,3,5", "AAAA", "≥30", "AA/BB",
-        "=1,3,5", "AAA/BBB", "ABCD", "AAAA/BB", "AAA/BB", "AA/BB/CC", "≤12",
-        "ABCD", "≥30", "AAAA", "AA/BB", "=1,3,5", "AAAA", "AAA/BB"
-    };
-
-    // To store each square's base color so we can reset after highlighting
-    private Color[] originalColors;
-
-    // Colors for squares based on points
-    private final Color WHITE_SQUARE = Color.WHITE;
-    private final Color PINK_SQUARE = new Color(255, 182, 193);
-    private final Color HOT_PINK_SQUARE = new Color(255, 105, 180);
-
-    // Variables to hold the currently placed (tentative) stone
-    private int currentStoneRow = -1;
-    private int currentStoneCol = -1;
-    private StonePanel currentStone = null;
+    // Headless board (occupancy bitboards + square types), shared with gameState
+    private BoardState boardState;
+
+    // Board constants (7x7 standard up to BoardLayout.MAX_SIZE)
+    private final int BOARD_SIZE;
+
+    private long[] validCells; // scratch for highlightValidMoves
 
     // Pause flag
     private boolean isPaused = false;
 
-    // Difficulty mode: if true, CPU picks highest-point move (Hard); if false, picks random (Easy).
-    private boolean hardMode = false;
+    // CPU difficulty per player (ignored for humans)
+    private Difficulty[] difficulties;
 
-    // Random number generator (for Easy CPU)
-    private Random rand = new Random();
+    // How each CPU player picks holds and moves (null for humans)
+    private CpuStrategy[] strategies;
+
+    // Legal-move generator for the CPU (reused every turn)
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    // A CPU move search is running off the EDT / it was stopped by a pause and must run again
+    private boolean cpuSearching = false;
+    private boolean cpuSearchInterrupted = false;
+
+    // Time a Master search leaves for the remaining turn steps
+    private static final long SEARCH_SAFETY_MS = 3000;
+
+    // Paces CPU turns (steps run on the EDT; pause/resume/cancel aware)
+    private final TurnScheduler cpuScheduler = new TurnScheduler();
+    private static final long CPU_STEP_MS = 1000;
 
     //---------------------------------------------------------------------------------------
     // CONSTRUCTORS
     //---------------------------------------------------------------------------------------
 
     /**
-     * Original 5-parameter constructor (called by KiviGame).
+     * Original 5-parameter constructor.
      * By default, we set hardMode = false (Easy).
      */
     public KiviGameplay(int playerCount, String[] playerNames, Color[] playerColors,
@@ -83,30 +88,55 @@ public class KiviGameplay extends JFrame {
     }
 
     /**
-     * 6-parameter constructor if you want to explicitly specify hardMode.
-     * KiviGame does NOT call this by default, so no compile errors.
+     * 6-parameter constructor if you want to explicitly specify hardMode
+     * (every CPU plays Hard if true, Easy if false).
      */
     public KiviGameplay(int playerCount, String[] playerNames, Color[] playerColors,
                         boolean[] isHuman, int turnTime, boolean hardMode) {
+        this(playerCount, playerNames, playerColors, isHuman, turnTime,
+                sameDifficulty(playerCount, hardMode ? Difficulty.HARD : Difficulty.EASY));
+    }
+
+    /**
+     * Constructor with a difficulty per player, on the standard board.
+     */
+    public KiviGameplay(int playerCount, String[] playerNames, Color[] playerColors,
+                        boolean[] isHuman, int turnTime, Difficulty[] difficulties) {
+        this(playerCount, playerNames, playerColors, isHuman, turnTime, difficulties, BoardLayout.standard(),
+                GameState.DEFAULT_STONES, ScoringRule.SQUARES);
+    }
+
+    /**
+     * Full constructor (called by KiviGame): a difficulty per player, a board layout of any size,
+     * how many stones each player starts with and the scoring rule. Up to GameState.MAX_PLAYERS players.
+     */
+    public KiviGameplay(int playerCount, String[] playerNames, Color[] playerColors,
+                        boolean[] isHuman, int turnTime, Difficulty[] difficulties, BoardLayout layout,
+                        int stonesPerPlayer, ScoringRule scoringRule) {
         super("KIVI - Game");
 
+        this.BOARD_SIZE = layout.getSize();
+
         this.playerCount = playerCount;
         this.playerNames = playerNames;
         this.playerColors = playerColors;
         this.isHuman = isHuman;
         this.turnTimeTotal = turnTime;
-        this.hardMode = hardMode;
-
-        // Each player starts with 10 stones
-        stonesLeft = new int[playerCount];
-        playerScores = new int[playerCount];
+        this.difficulties = difficulties;
+        this.strategies = new CpuStrategy[playerCount];
         for (int i = 0; i < playerCount; i++) {
-            stonesLeft[i] = 10;
-            playerScores[i] = 0;
+            if (!isHuman[i]) {
+                strategies[i] = difficulties[i].newStrategy();
+            }
         }
 
-        // Instantiate dice logic
-        diceLogic = new RollADice();
+        int[] startingStones = new int[playerCount];
+        java.util.Arrays.fill(startingStones, stonesPerPlayer);
+        engine = new GameEngine(layout, startingStones, scoringRule,
+                java.util.random.RandomGenerator.of(RollADice.DEFAULT_ALGORITHM));
+        diceLogic = engine.getDice();
+        gameState = engine.getState();
+        boardState = gameState.getBoard();
 
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setSize(900, 700);
@@ -115,10 +145,12 @@ public class KiviGameplay extends JFrame {
         createGameBoard();
         createDicePanel();
         createPlayerInfoPanel();
+        ColorFilterLayer.install(this);
 
         // Instantiate piece placement logic AFTER the board is ready
-        placeLogic = new PlaceAPiece(BOARD_SIZE, boardSquares, SQUARE_TYPES);
+        placeLogic = new PlaceAPiece(boardState);
 
+        engine.addListener(this::onGameEvent);
         startGame();
 
         setLocationRelativeTo(null);
@@ -129,114 +161,34 @@ public class KiviGameplay extends JFrame {
     // MAIN GAME LOGIC
     //---------------------------------------------------------------------------------------
 
-    // Returns points based on the square type.
-    private int getPointsForSquareType(String squareType) {
-        switch (squareType) {
-            case "AA/BB":
-            case "AAA":
-            case "ABCD":
-            case "AAA/BB":
-                return 1;
-            case "AAAA":
-            case "ABCDE":
-            case "≤12":
-            case "≥30":
-            case "=1,3,5":   // Added for all odd
-            case "=2,4,6":   // Added for all even
-                return 2;
-            case "AA/BB/CC":
-            case "AAA/BBB":
-            case "AAAA/BB":
-                return 3;
-            default:
-                return 0;
-        }
-    }
-
+    // One painted component for the whole board; squares scale to fit the same 600x600 area
     private void createGameBoard() {
-        gameBoard = new JPanel(new GridLayout(BOARD_SIZE, BOARD_SIZE, 2, 2));
-        gameBoard.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-
-        boardSquares = new JButton[BOARD_SIZE][BOARD_SIZE];
-        originalColors = new Color[BOARD_SIZE * BOARD_SIZE];
-
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                int index = i * BOARD_SIZE + j;
-                String squareType = SQUARE_TYPES[index];
-                int points = getPointsForSquareType(squareType);
-                Color squareColor;
-                if (points == 1 || points == 0) {
-                    squareColor = WHITE_SQUARE;
-                } else if (points == 2) {
-                    squareColor = PINK_SQUARE;
-                } else {
-                    squareColor = HOT_PINK_SQUARE;
-                }
-                originalColors[index] = squareColor;
-
-                JButton square = new JButton();
-                square.setPreferredSize(new Dimension(80, 80));
-                square.setMinimumSize(new Dimension(80, 80));
-                square.setMaximumSize(new Dimension(80, 80));
-                square.setBackground(DisplaySettings.ColorBlindnessFilter.transformColor(squareColor));
-                square.setOpaque(true);
-                square.setBorder(BorderFactory.createLineBorder(Color.BLACK));
-                square.setFocusPainted(false);
-
-                square.setLayout(new BorderLayout());
-                JLabel typeLabel = new JLabel(squareType, JLabel.CENTER);
-                typeLabel.setFont(new Font("Arial", Font.BOLD, 12));
-                square.add(typeLabel, BorderLayout.CENTER);
-
-                final int row = i;
-                final int col = j;
-                square.addActionListener(e -> {
-                    if (!isHuman[currentPlayer] || diceLogic.getRollCount() == 0) {
-                        return;
-                    }
-                    // Gather the dice the player selected
-                    ArrayList<Integer> selectedValues = new ArrayList<>();
-                    boolean[] selected = diceLogic.getDiceSelected();
-                    int[] values = diceLogic.getDiceValues();
-                    for (int k = 0; k < 6; k++) {
-                        if (selected[k]) {
-                            selectedValues.add(values[k]);
-                        }
-                    }
-                    // If we have no stone yet, create one
-                    if (currentStone == null) {
-                        currentStone = new StonePanel(playerColors[currentPlayer]);
-                        currentStone.setPreferredSize(new Dimension(40, 40));
-                    }
-                    // Attempt placement
-                    boolean placed = placeLogic.attemptPlacePiece(
-                            this, // JFrame reference for JOptionPane
-                            row, col,
-                            currentStoneRow, currentStoneCol,
-                            currentStone,
-                            selectedValues,
-                            isHuman[currentPlayer]);
-                    if (placed) {
-                        currentStoneRow = row;
-                        currentStoneCol = col;
-                        endTurnButton.setEnabled(true);
-                    }
-                });
-
-                boardSquares[i][j] = square;
-                gameBoard.add(square);
-            }
-        }
-
-        JPanel boardWrapper = new JPanel(new BorderLayout());
-        boardWrapper.add(gameBoard, BorderLayout.CENTER);
+        boardCanvas = new BoardCanvas(boardState, playerColors);
         Dimension fixedBoardSize = new Dimension(600, 600);
-        boardWrapper.setPreferredSize(fixedBoardSize);
-        boardWrapper.setMinimumSize(fixedBoardSize);
-        boardWrapper.setMaximumSize(fixedBoardSize);
+        boardCanvas.setPreferredSize(fixedBoardSize);
+        boardCanvas.setMinimumSize(fixedBoardSize);
+        boardCanvas.setMaximumSize(fixedBoardSize);
+        boardCanvas.setCellListener(this::onCellClicked);
+        validCells = boardState.newCellSet();
 
-        add(boardWrapper, BorderLayout.CENTER);
+        add(boardCanvas, BorderLayout.CENTER);
+    }
+
+    private void onCellClicked(int cell) {
+        if (!isHuman[currentPlayer()] || diceLogic.getRollCount() == 0) {
+            return;
+        }
+        // Gather the dice the player selected
+        int selectedKey = diceLogic.getSelectedKey();
+        boolean valid = placeLogic.attemptPlacePiece(
+                this, // JFrame reference for JOptionPane
+                cell / BOARD_SIZE, cell % BOARD_SIZE,
+                selectedKey,
+                isHuman[currentPlayer()]);
+        if (valid) {
+            endTurnButton.setEnabled(true);
+            engine.place(cell);
+        }
     }
 
     private void createDicePanel() {
@@ -251,14 +203,24 @@ public class KiviGameplay extends JFrame {
             dice[i].addActionListener(e -> toggleDieSelection(dieIndex));
             dicePanel.add(dice[i]);
         }
+        dieBorder = dice[0].getBorder();
 
         rollDiceButton = new JButton("Roll Dice");
-        rollDiceButton.addActionListener(e -> rollDice());
+        // Roll and End Turn are the human's buttons; a CPU turn drives itself
+        rollDiceButton.addActionListener(e -> {
+            if (isHumanTurn()) {
+                rollDice();
+            }
+        });
         dicePanel.add(rollDiceButton);
 
         endTurnButton = new JButton("End Turn");
         endTurnButton.setEnabled(false);
-        endTurnButton.addActionListener(e -> endTurn());
+        endTurnButton.addActionListener(e -> {
+            if (isHumanTurn()) {
+                endTurn();
+            }
+        });
         dicePanel.add(endTurnButton);
 
         pauseButton = new JButton("Pause");
@@ -270,13 +232,18 @@ public class KiviGameplay extends JFrame {
         resumeButton.setEnabled(false);
         dicePanel.add(resumeButton);
 
-        // Save button (placeholder)
+        // Save button: writes the setup and the event log
         saveButton = new JButton("Save");
-        saveButton.addActionListener(e -> {
-            System.out.println("Save button clicked. Functionality not implemented yet.");
-        });
+        saveButton.addActionListener(e -> saveGame());
         dicePanel.add(saveButton);
 
+        hintButton = new JToggleButton("Hints");
+        hintButton.addActionListener(e -> refreshHints());
+        dicePanel.add(hintButton);
+
+        hintLabel = new JLabel(" ");
+        dicePanel.add(hintLabel);
+
         add(dicePanel, BorderLayout.SOUTH);
     }
 
@@ -286,7 +253,7 @@ public class KiviGameplay extends JFrame {
         playerInfoPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         playerInfoPanel.setPreferredSize(new Dimension(300, 600));
 
-        currentPlayerLabel = new JLabel("Current Player: " + playerNames[currentPlayer]);
+        currentPlayerLabel = new JLabel("Current Player: " + playerNames[currentPlayer()]);
         currentPlayerLabel.setFont(new Font("Arial", Font.BOLD, 18));
         // Center horizontally
         currentPlayerLabel.setHorizontalAlignment(SwingConstants.CENTER);
@@ -320,9 +287,13 @@ public class KiviGameplay extends JFrame {
         }
         for (int i = 0; i < playerCount; i++) {
             JPanel playerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            // Line scoring: the running line total, with the plain square points alongside
+            String score = gameState.getRule() == ScoringRule.LINES
+                    ? gameState.getLineScore(i) + " (squares " + gameState.getSquarePoints(i) + ")"
+                    : String.valueOf(gameState.getScore(i));
             JLabel nameLabel = new JLabel(playerNames[i]
-                    + " - Stones: " + stonesLeft[i]
-                    + " | Score: " + playerScores[i]);
+                    + " - Stones: " + gameState.getStonesLeft(i)
+                    + " | Score: " + score);
             nameLabel.setForeground(playerColors[i]);
             nameLabel.setFont(new Font("Arial", Font.BOLD, 17));
             playerPanel.add(nameLabel);
@@ -337,25 +308,17 @@ public class KiviGameplay extends JFrame {
     //---------------------------------------------------------------------------------------
     private void startTurn() {
         turnStartTime = System.currentTimeMillis();
-        diceLogic.resetForNextTurn();
 
         for (int i = 0; i < 6; i++) {
             dice[i].setText("?");
             dice[i].setBackground(null);
-            dice[i].setEnabled(true);
+            dice[i].setEnabled(isHumanTurn());
         }
 
-        if (currentStone != null && currentStoneRow >= 0 && currentStoneCol >= 0) {
-            boardSquares[currentStoneRow][currentStoneCol].remove(currentStone);
-            boardSquares[currentStoneRow][currentStoneCol].revalidate();
-            boardSquares[currentStoneRow][currentStoneCol].repaint();
-            currentStone = null;
-            currentStoneRow = -1;
-            currentStoneCol = -1;
-        }
+        refreshHints();
 
-        currentPlayerLabel.setText("Current Player: " + playerNames[currentPlayer]);
-        rollDiceButton.setEnabled(true);
+        currentPlayerLabel.setText("Current Player: " + playerNames[currentPlayer()]);
+        rollDiceButton.setEnabled(isHumanTurn());
         endTurnButton.setEnabled(false);
         timerLabel.setText("Time left: " + turnTimeTotal + ".0s");
 
@@ -372,37 +335,26 @@ public class KiviGameplay extends JFrame {
             timerLabel.setText("Time left: " + remainingSec + "." + dec + "s");
             if (elapsed >= turnTimeTotal * 1000) {
                 gameTimer.stop();
-                endTurn();
+                endTurn(true);
             }
         });
         gameTimer.start();
 
-        if (!isHuman[currentPlayer]) {
-            new Thread(() -> handleCpuTurn()).start();
+        if (!isHuman[currentPlayer()]) {
+            handleCpuTurn();
         }
     }
 
     private void startGame() {
-        currentPlayer = 0;
         startTurn();
     }
 
     private void rollDice() {
-        if (isPaused)
+        if (isPaused || diceLogic.getRollCount() >= RollADice.MAX_ROLLS)
             return;
 
-        if (currentStone != null && currentStoneRow >= 0 && currentStoneCol >= 0) {
-            boardSquares[currentStoneRow][currentStoneCol].remove(currentStone);
-            boardSquares[currentStoneRow][currentStoneCol].revalidate();
-            boardSquares[currentStoneRow][currentStoneCol].repaint();
-            currentStone = null;
-            currentStoneRow = -1;
-            currentStoneCol = -1;
-        }
-
-        diceLogic.rollDice();
-        updateDiceUI();
-        highlightValidMoves();
+        // A new roll takes back any stone placed with the old one
+        engine.roll();
     }
 
     /**
@@ -420,286 +372,278 @@ public class KiviGameplay extends JFrame {
                 dice[i].setText(String.valueOf(values[i]));
             }
             if (selected[i]) {
-                dice[i].setBackground(playerColors[currentPlayer]);
+                dice[i].setBackground(playerColors[currentPlayer()]);
             } else {
                 dice[i].setBackground(null);
             }
-            dice[i].setEnabled(diceLogic.getRollCount() > 0);
+            dice[i].setEnabled(isHumanTurn() && diceLogic.getRollCount() > 0);
         }
-        rollDiceButton.setEnabled(diceLogic.getRollCount() < 3);
-        if (diceLogic.getRollCount() == 3 && currentStone == null) {
+        rollDiceButton.setEnabled(isHumanTurn() && diceLogic.getRollCount() < 3);
+        if (isHumanTurn() && diceLogic.getRollCount() == 3 && engine.getPendingCell() < 0) {
             endTurnButton.setEnabled(true);
         }
     }
 
     private void toggleDieSelection(int dieIndex) {
-        if (isPaused)
+        if (isPaused || !isHumanTurn())
             return;
         if (diceLogic.getRollCount() == 0)
             return;
-        diceLogic.toggleDieSelection(dieIndex);
-        updateDiceUI();
-        highlightValidMoves();
+        engine.toggle(dieIndex);
     }
 
+    // Valid squares = (types the selection satisfies) AND (empty cells);
+    // the canvas only repaints squares that changed since the last call.
     private void highlightValidMoves() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                int index = i * BOARD_SIZE + j;
-                boardSquares[i][j].setBackground(
-                    DisplaySettings.ColorBlindnessFilter.transformColor(originalColors[index]));
-            }
-        }
-        if (diceLogic.getRollCount() == 0)
-            return;
-        ArrayList<Integer> selectedValues = new ArrayList<>();
-        boolean[] selected = diceLogic.getDiceSelected();
-        int[] values = diceLogic.getDiceValues();
-        for (int i = 0; i < 6; i++) {
-            if (selected[i]) {
-                selectedValues.add(values[i]);
-            }
-        }
-        if (selectedValues.isEmpty())
-            return;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (boardSquares[i][j].getComponentCount() > 1 && !(i == currentStoneRow && j == currentStoneCol))
-                    continue;
-                String squareType = SQUARE_TYPES[i * BOARD_SIZE + j];
-                if (placeLogic.isValidPlacement(squareType, selectedValues)) {
-                    boardSquares[i][j].setBackground(
-                        DisplaySettings.ColorBlindnessFilter.transformColor(Color.GREEN.brighter()));
-                }
+        java.util.Arrays.fill(validCells, 0L);
+        if (diceLogic.getRollCount() > 0) {
+            int selectedKey = diceLogic.getSelectedKey();
+            if (selectedKey != 0) {
+                boardState.getValidCells(selectedKey, validCells);
             }
         }
+        boardCanvas.setHighlighted(validCells);
     }
 
     private void endTurn() {
+        endTurn(false);
+    }
+
+    private void endTurn(boolean timedOut) {
         if (gameTimer != null) {
             gameTimer.stop();
         }
-        if (currentStone != null && currentStoneRow >= 0 && currentStoneCol >= 0) {
-            int index = currentStoneRow * BOARD_SIZE + currentStoneCol;
-            String squareType = SQUARE_TYPES[index];
-            ArrayList<Integer> selectedValues = new ArrayList<>();
-            boolean[] selected = diceLogic.getDiceSelected();
-            int[] values = diceLogic.getDiceValues();
-            for (int i = 0; i < 6; i++) {
-                if (selected[i]) {
-                    selectedValues.add(values[i]);
-                }
-            }
-            int points = calculatePoints(squareType, selectedValues);
-            playerScores[currentPlayer] += points;
-            stonesLeft[currentPlayer]--;
-            currentStone = null;
-            currentStoneRow = -1;
-            currentStoneCol = -1;
-        }
+        // Whoever ended the turn (CPU, button or timer), drop any CPU steps still queued
+        stopCpuSearch();
+        cpuScheduler.cancel();
         for (int i = 0; i < 6; i++) {
             dice[i].setEnabled(false);
         }
         rollDiceButton.setEnabled(false);
-        updatePlayerStats();
-        currentPlayer = (currentPlayer + 1) % playerCount;
-        if (isGameOver()) {
+        engine.endTurn(timedOut);
+        if (gameState.isGameOver()) {
             endGame();
             return;
         }
         startTurn();
     }
 
-    private int calculatePoints(String squareType, ArrayList<Integer> diceUsed) {
-        switch (squareType) {
-            case "AA/BB":
-            case "AAA":
-            case "ABCD":
-            case "AAA/BB":
-                return 1;
-            case "AAAA":
-            case "ABCDE":
-            case "≤12":
-            case "≥30":
-            case "=1,3,5":   // Added for all odd
-            case "=2,4,6":   // Added for all even
-                return 2;
-            case "AA/BB/CC":
-            case "AAA/BBB":
-            case "AAAA/BB":
-                return 3;
-            default:
-                return 0;
-        }
-    }
-    
-
-    private boolean isGameOver() {
-        for (int i = 0; i < playerCount; i++) {
-            if (stonesLeft[i] <= 0) {
-                return true;
-            }
-        }
-        boolean boardFull = true;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (boardSquares[i][j].getComponentCount() <= 1) {
-                    boardFull = false;
-                    break;
-                }
-            }
-            if (!boardFull)
-                break;
-        }
-        return boardFull;
-    }
-
     private void endGame() {
-        int[] scores = calculateScores();
-        int maxScore = -1;
-        int winner = -1;
-        for (int i = 0; i < playerCount; i++) {
-            if (scores[i] > maxScore) {
-                maxScore = scores[i];
-                winner = i;
-            }
-        }
+        int winner = gameState.getWinner();
         StringBuilder message = new StringBuilder();
         message.append("Game Over!\n\n");
         message.append("Final Scores:\n");
         for (int i = 0; i < playerCount; i++) {
-            message.append(playerNames[i]).append(": ").append(scores[i]).append(" points\n");
+            message.append(playerNames[i]).append(": ").append(gameState.getScore(i)).append(" points\n");
         }
         message.append("\nWinner: ").append(playerNames[winner]).append("!");
         JOptionPane.showMessageDialog(this, message.toString(), "Game Over", JOptionPane.INFORMATION_MESSAGE);
         dispose();
     }
 
-    private int[] calculateScores() {
-        return playerScores;
+    // Every engine event lands here once it is applied: refresh whatever it touched
+    private void onGameEvent(GameEngine source, int event) {
+        // This turn's stone (placed, moved, taken back by a roll, or committed at the end of the turn)
+        boardCanvas.setPendingStone(engine.getPendingCell(), playerColors[currentPlayer()]);
+        switch (GameEngine.type(event)) {
+            case GameEngine.ROLL:
+            case GameEngine.TOGGLE:
+            case GameEngine.HOLD:
+                updateDiceUI();
+                highlightValidMoves();
+                refreshHints();
+                break;
+            case GameEngine.PLACE:
+                refreshHints();
+                break;
+            default:
+                updatePlayerStats();
+                break;
+        }
+    }
+
+    private void saveGame() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File("kivi-game.txt"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        StringBuilder players = new StringBuilder("Players:");
+        for (int i = 0; i < playerCount; i++) {
+            players.append(i == 0 ? " " : ", ").append(playerNames[i])
+                    .append(isHuman[i] ? " (Human)" : " (" + difficulties[i].getLabel() + ")");
+        }
+        try {
+            engine.save(chooser.getSelectedFile().toPath(), "Kivi game, " + engine.getEventCount() + " events",
+                    players.toString());
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not save the game: " + ex.getMessage());
+        }
     }
 
     //---------------------------------------------------------------------------------------
     // CPU LOGIC
     //---------------------------------------------------------------------------------------
+    // A CPU turn is a chain of paced steps on the EDT, one second apart:
+    // roll -> (Expert/Master: hold and reroll)* -> show chosen dice -> place -> end turn.
     private void handleCpuTurn() {
-        try {
-            Thread.sleep(1000);
-            waitWhilePaused();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        cpuScheduler.schedule(CPU_STEP_MS, this::cpuRollStep);
+    }
+
+    private void cpuRollStep() {
         rollDice();
-        try {
-            Thread.sleep(1000);
-            waitWhilePaused();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-
-        boolean foundMove = false;
-        for (int numDice = 1; numDice <= 6 && !foundMove; numDice++) {
-            boolean[] candidate = new boolean[6];
-            foundMove = tryDiceCombination(candidate, 0, 0, numDice);
-            if (foundMove) {
-                diceLogic.setDiceSelected(candidate);
-                updateDiceUI();
-                try {
-                    Thread.sleep(1000);
-                    waitWhilePaused();
-                } catch (InterruptedException e2) {
-                    e2.printStackTrace();
-                }
-                // Build list of all valid moves
-                ArrayList<Move> validMoves = new ArrayList<>();
-                ArrayList<Integer> selValues = new ArrayList<>();
-                boolean[] sel = diceLogic.getDiceSelected();
-                int[] vals = diceLogic.getDiceValues();
-                for (int i = 0; i < 6; i++) {
-                    if (sel[i]) {
-                        selValues.add(vals[i]);
-                    }
-                }
-                for (int i = 0; i < BOARD_SIZE; i++) {
-                    for (int j = 0; j < BOARD_SIZE; j++) {
-                        if (boardSquares[i][j].getComponentCount() > 1)
-                            continue;
-                        String squareType = SQUARE_TYPES[i * BOARD_SIZE + j];
-                        if (placeLogic.isValidPlacement(squareType, selValues)) {
-                            int points = getPointsForSquareType(squareType);
-                            validMoves.add(new Move(i, j, points));
-                        }
-                    }
-                }
-                if (!validMoves.isEmpty()) {
-                    Move chosenMove;
-                    if (hardMode) {
-                        // Hard mode: choose highest point
-                        chosenMove = validMoves.get(0);
-                        for (Move m : validMoves) {
-                            if (m.points > chosenMove.points) {
-                                chosenMove = m;
-                            }
-                        }
-                    } else {
-                        // Easy mode: random valid move
-                        chosenMove = validMoves.get(rand.nextInt(validMoves.size()));
-                    }
-                    // Place the stone at chosenMove
-                    if (currentStone == null) {
-                        currentStone = new StonePanel(playerColors[currentPlayer]);
-                        currentStone.setPreferredSize(new Dimension(40, 40));
-                    }
-                    placeLogic.placePiece(chosenMove.row, chosenMove.col,
-                            currentStoneRow, currentStoneCol, currentStone);
-                    currentStoneRow = chosenMove.row;
-                    currentStoneCol = chosenMove.col;
-                }
+        cpuScheduler.schedule(CPU_STEP_MS, this::cpuHoldStep);
+    }
+
+    private void cpuHoldStep() {
+        if (diceLogic.getRollCount() < RollADice.MAX_ROLLS) {
+            // Keep the dice the strategy picks and reroll the rest
+            int keep = strategies[currentPlayer()].chooseHold(gameState, diceLogic.getDiceValues(),
+                    diceLogic.getRollCount());
+            if (keep != CpuStrategy.STOP_ROLLING) {
+                engine.hold(keep);
+                cpuScheduler.schedule(CPU_STEP_MS, this::cpuRollStep);
+                return;
             }
         }
-        try {
-            Thread.sleep(1000);
-            waitWhilePaused();
-        } catch (InterruptedException e3) {
-            e3.printStackTrace();
-        }
-        endTurn();
+        cpuChooseStep();
     }
 
-    /**
-     * CPU helper: tries all combinations of exactly 'target' dice
-     * (starting from index "index") to see if a valid square exists.
-     */
-    private boolean tryDiceCombination(boolean[] selected, int index, int count, int target) {
-        if (count == target) {
-            ArrayList<Integer> selValues = new ArrayList<>();
-            int[] vals = diceLogic.getDiceValues();
-            for (int i = 0; i < 6; i++) {
-                if (selected[i]) {
-                    selValues.add(vals[i]);
-                }
-            }
-            for (int row = 0; row < BOARD_SIZE; row++) {
-                for (int col = 0; col < BOARD_SIZE; col++) {
-                    if (boardSquares[row][col].getComponentCount() > 1)
-                        continue;
-                    String squareType = SQUARE_TYPES[row * BOARD_SIZE + col];
-                    if (placeLogic.isValidPlacement(squareType, selValues)) {
-                        return true;
-                    }
-                }
+    private void cpuChooseStep() {
+        // All legal moves for this roll, fewest dice first
+        int moveCount = moveGenerator.generate(boardState, diceLogic.getDiceValues());
+        if (moveCount == 0) {
+            cpuScheduler.schedule(CPU_STEP_MS, this::endTurn);
+            return;
+        }
+        // Chosen off the EDT on copies (the EDT keeps using gameState and moveGenerator);
+        // Master searches until the turn clock nearly runs out
+        CpuStrategy strategy = strategies[currentPlayer()];
+        long deadline = turnStartTime + turnTimeTotal * 1000L - SEARCH_SAFETY_MS;
+        GameState snapshot = gameState.copy();
+        int[] diceValues = diceLogic.getDiceValues().clone();
+        cpuSearching = true;
+        cpuScheduler.runInBackground(() -> {
+            MoveGenerator moves = new MoveGenerator();
+            int count = moves.generate(snapshot.getBoard(), diceValues);
+            int chosen = strategy.chooseMove(snapshot, diceValues, moves, count, deadline);
+            return new int[] { moves.getSubset(chosen), moves.getCell(chosen) };
+        }, move -> {
+            cpuSearching = false;
+            if (cpuSearchInterrupted) {
+                // Paused mid-search: think again with the time the turn has left
+                cpuSearchInterrupted = false;
+                cpuChooseStep();
+            } else {
+                cpuSelectStep(move[0], move[1]);
             }
-            return false;
+        }, error -> {
+            // A failed search still finishes the turn: best points now, like Hard
+            cpuSearching = false;
+            cpuSearchInterrupted = false;
+            LOG.log(Level.WARNING, "CPU move search failed; playing the best-points move instead", error);
+            cpuFallbackStep();
+        });
+    }
+
+    // Shows the dice in subset, then places the stone on cell a step later
+    private void cpuSelectStep(int subset, int cell) {
+        if (!cpuMoveFits(PlacementTable.keyOf(diceLogic.getDiceValues(), subset), cell)) {
+            // The dice no longer match the ones the move was chosen for: pick again from these
+            cpuFallbackStep();
+            return;
+        }
+        engine.hold(subset);
+        cpuScheduler.schedule(CPU_STEP_MS, () -> cpuPlaceStep(cell));
+    }
+
+    private void cpuPlaceStep(int cell) {
+        if (!cpuMoveFits(diceLogic.getSelectedKey(), cell)) {
+            // The selection changed since it was shown: choose and show again
+            cpuFallbackStep();
+            return;
         }
-        if (index >= 6)
-            return false;
+        // Place the stone at the chosen cell
+        engine.place(cell);
+        cpuScheduler.schedule(CPU_STEP_MS, this::endTurn);
+    }
+
+    // Whether the engine will accept a stone on cell with the dice in key
+    private boolean cpuMoveFits(int key, int cell) {
+        return key != 0 && !boardState.isOccupied(cell) && boardState.getSquareType(cell).isSatisfiedBy(key);
+    }
 
-        selected[index] = true;
-        if (tryDiceCombination(selected, index + 1, count + 1, target)) {
-            return true;
+    // Shows Hard's best-points move for the dice on the table now, or ends the turn if none fits
+    private void cpuFallbackStep() {
+        int moveCount = moveGenerator.generate(boardState, diceLogic.getDiceValues());
+        if (moveCount == 0) {
+            cpuScheduler.schedule(CPU_STEP_MS, this::endTurn);
+            return;
         }
-        selected[index] = false;
-        return tryDiceCombination(selected, index + 1, count, target);
+        int chosen = HardCpu.bestPointsMove(gameState, moveGenerator, moveCount);
+        cpuSelectStep(moveGenerator.getSubset(chosen), moveGenerator.getCell(chosen));
+    }
+
+    // Ends a CPU search early, e.g. when its turn is over and its answer will be dropped
+    private void stopCpuSearch() {
+        if (cpuSearching) {
+            strategies[currentPlayer()].stopThinking();
+            cpuSearching = false;
+            cpuSearchInterrupted = false;
+        }
+    }
+
+    //---------------------------------------------------------------------------------------
+    // HINTS
+    //---------------------------------------------------------------------------------------
+    // Recomputed off the EDT after every roll, die toggle or placement; only the newest
+    // request is shown (cancel() drops answers to older ones).
+    private void refreshHints() {
+        hintScheduler.cancel();
+        if (!hintButton.isSelected() || !isHuman[currentPlayer()] || diceLogic.getRollCount() == 0) {
+            clearHints();
+            return;
+        }
+        GameState state = gameState.copy();
+        int[] values = diceLogic.getDiceValues().clone();
+        int rollCount = diceLogic.getRollCount();
+        int selectedKey = diceLogic.getSelectedKey();
+        hintScheduler.runInBackground(() -> hintEngine.compute(state, values, rollCount, selectedKey),
+                this::showHints, error -> {
+                    LOG.log(Level.WARNING, "Could not compute hints", error);
+                    clearHints();
+                });
+    }
+
+    private void showHints(HintEngine.Hint hint) {
+        // Outline the dice worth keeping (nothing to keep once the rerolls are used up)
+        boolean reroll = diceLogic.getRollCount() < RollADice.MAX_ROLLS
+                && hint.getKeepMask() != CpuStrategy.STOP_ROLLING;
+        for (int i = 0; i < 6; i++) {
+            boolean keep = reroll && (hint.getKeepMask() & (1 << i)) != 0;
+            dice[i].setBorder(keep ? BorderFactory.createLineBorder(Color.ORANGE, 3) : dieBorder);
+        }
+        if (!reroll) {
+            hintLabel.setText(String.format("Hint: place now (%.2f pts)", hint.getExpectedPoints()));
+        } else if (hint.getKeepMask() == 0) {
+            hintLabel.setText(String.format("Hint: reroll all (%.2f pts)", hint.getExpectedPoints()));
+        } else {
+            hintLabel.setText(String.format("Hint: keep outlined dice (%.2f pts)", hint.getExpectedPoints()));
+        }
+
+        int tentative = engine.getPendingCell();
+        for (int cell = 0; cell < boardState.getCellCount(); cell++) {
+            double points = hint.getCellPoints(cell);
+            boardCanvas.setHint(cell, points < 0 || cell == tentative ? null : String.format("%.2f", points));
+        }
+    }
+
+    private void clearHints() {
+        for (int i = 0; i < 6; i++) {
+            dice[i].setBorder(dieBorder);
+        }
+        hintLabel.setText(" ");
+        boardCanvas.clearHints();
     }
 
     //---------------------------------------------------------------------------------------
@@ -712,6 +656,13 @@ public class KiviGameplay extends JFrame {
                 gameTimer.stop();
             }
             pauseStartTime = System.currentTimeMillis();
+            if (cpuSearching) {
+                // Its deadline doesn't know about the pause: stop it, and search again once resumed
+                strategies[currentPlayer()].stopThinking();
+                cpuSearchInterrupted = true;
+            }
+            cpuScheduler.pause();
+            hintScheduler.pause();
             setGameControlButtonsEnabled(false);
             pauseButton.setEnabled(false);
             resumeButton.setEnabled(true);
@@ -727,6 +678,8 @@ public class KiviGameplay extends JFrame {
             if (gameTimer != null) {
                 gameTimer.start();
             }
+            cpuScheduler.resume();
+            hintScheduler.resume();
             setGameControlButtonsEnabled(true);
             pauseButton.setEnabled(true);
             resumeButton.setEnabled(false);
@@ -735,11 +688,12 @@ public class KiviGameplay extends JFrame {
     }
 
     private void setGameControlButtonsEnabled(boolean enabled) {
+        boolean human = enabled && isHumanTurn();
         for (JButton d : dice) {
-            d.setEnabled(enabled && diceLogic.getRollCount() > 0);
+            d.setEnabled(human && diceLogic.getRollCount() > 0);
         }
-        rollDiceButton.setEnabled(enabled && diceLogic.getRollCount() < 3);
-        endTurnButton.setEnabled(enabled && (currentStone != null || diceLogic.getRollCount() == 3));
+        rollDiceButton.setEnabled(human && diceLogic.getRollCount() < 3);
+        endTurnButton.setEnabled(human && (engine.getPendingCell() >= 0 || diceLogic.getRollCount() == 3));
     }
 
     @Override
@@ -747,46 +701,27 @@ public class KiviGameplay extends JFrame {
         if (gameTimer != null) {
             gameTimer.stop();
         }
+        stopCpuSearch();
+        cpuScheduler.cancel();
+        hintScheduler.cancel();
         super.dispose();
     }
 
     //---------------------------------------------------------------------------------------
     // HELPER METHODS
     //---------------------------------------------------------------------------------------
-    // Wait while paused so CPU doesn't act
-    private void waitWhilePaused() throws InterruptedException {
-        while (isPaused) {
-            Thread.sleep(100);
-        }
+    private int currentPlayer() {
+        return gameState.getCurrentPlayer();
     }
 
-    // A small helper class to store CPU moves
-    private class Move {
-        int row, col, points;
-        Move(int r, int c, int p) {
-            row = r; col = c; points = p;
-        }
+    private boolean isHumanTurn() {
+        return isHuman[currentPlayer()];
     }
 
-    // Inner class for a better-looking stone.
-    private class StonePanel extends JPanel {
-        private Color color;
-
-        public StonePanel(Color color) {
-            this.color = color;
-            setOpaque(false);
-        }
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setColor(color);
-            g2d.fillOval(0, 0, getWidth(), getHeight());
-            g2d.setColor(Color.BLACK);
-            g2d.drawOval(0, 0, getWidth() - 1, getHeight() - 1);
-        }
+    private static Difficulty[] sameDifficulty(int playerCount, Difficulty difficulty) {
+        Difficulty[] result = new Difficulty[playerCount];
+        java.util.Arrays.fill(result, difficulty);
+        return result;
     }
 
     // Test main (optional)
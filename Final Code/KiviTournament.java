@@ -0,0 +1,313 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+
+/**
+ * Headless self-play tournament between CPU difficulty levels (no Swing frames):
+ * - Round robin: every pair of levels plays the same number of 2-player games,
+ *   switching seats every game
+ * - Games are split into batches and spread over all cores; each batch has its own
+ *   simulator, strategies and seed, so a run is reproducible for a given seed and thread count
+ * - Reports win/draw rates, Elo ratings (fitted to all results) and score distributions
+ *
+ * Usage: java KiviTournament [-games N] [-levels Easy,Hard,Expert] [-master-ms N] [-seed N] [-threads N]
+ *                            [-board file | -size N]
+ * (-games is per pair of levels; Master searches for -master-ms per move, so add it to -levels only when needed)
+ */
+public class KiviTournament {
+
+    private static final int BATCH_GAMES = 2000;
+    private static final int MAX_SCORE = 64;
+    private static final double ELO_BASE = 1500;
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        long gamesPerPair = 10_000;
+        String levels = "Easy,Hard,Expert";
+        long masterMillis = 20;
+        long seed = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        BoardLayout layout = BoardLayout.standard();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-games":
+                    gamesPerPair = Long.parseLong(args[i + 1]);
+                    break;
+                case "-levels":
+                    levels = args[i + 1];
+                    break;
+                case "-master-ms":
+                    masterMillis = Long.parseLong(args[i + 1]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-board":
+                    layout = BoardLayout.load(Paths.get(args[i + 1]));
+                    break;
+                case "-size":
+                    layout = BoardLayout.forSize(Integer.parseInt(args[i + 1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        List<Difficulty> entrants = new ArrayList<>();
+        for (String label : levels.split(",")) {
+            Difficulty d = Difficulty.fromLabel(label.trim());
+            if (!d.getLabel().equalsIgnoreCase(label.trim())) {
+                throw new IllegalArgumentException("Unknown level " + label);
+            }
+            entrants.add(d);
+        }
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("Need at least two levels");
+        }
+
+        System.out.printf("Kivi tournament: %s, %,d games per pair, %d threads, seed %d%n",
+                levels, gamesPerPair, threads, seed);
+        long start = System.currentTimeMillis();
+        Results results = run(layout, entrants, gamesPerPair, masterMillis, seed, threads);
+        double seconds = (System.currentTimeMillis() - start) / 1000.0;
+        results.print(entrants);
+        System.out.printf("%n%,d games in %.1fs (%,.0f games/s)%n", results.games, seconds, results.games / seconds);
+    }
+
+    /**
+     * Plays the whole round robin and merges the batch results.
+     */
+    static Results run(BoardLayout layout, List<Difficulty> entrants, long gamesPerPair, long masterMillis, long seed, int threads)
+            throws InterruptedException, ExecutionException {
+        int n = entrants.size();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Results>> batches = new ArrayList<>();
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    for (long first = 0; first < gamesPerPair; first += BATCH_GAMES) {
+                        int pairA = a;
+                        int pairB = b;
+                        long batchFirst = first;
+                        long count = Math.min(BATCH_GAMES, gamesPerPair - first);
+                        long batchSeed = seeds.nextLong();
+                        batches.add(pool.submit(() ->
+                                playBatch(layout, entrants, pairA, pairB, batchFirst, count, masterMillis, batchSeed)));
+                    }
+                }
+            }
+            Results total = new Results(n);
+            for (Future<Results> batch : batches) {
+                total.merge(batch.get());
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Results playBatch(BoardLayout layout, List<Difficulty> entrants, int a, int b, long first, long count,
+                                     long masterMillis, long seed) {
+        RandomGenerator random = RollADice.seeded(seed);
+        GameSimulator simulator = new GameSimulator(layout.getSize(), layout.getTypes(),
+                GameState.DEFAULT_STONES, random);
+        CpuStrategy[] byEntrant = new CpuStrategy[entrants.size()];
+        byEntrant[a] = newStrategy(entrants.get(a), random);
+        byEntrant[b] = newStrategy(entrants.get(b), random);
+
+        Results results = new Results(entrants.size());
+        CpuStrategy[] seats = new CpuStrategy[2];
+        int[] entrantInSeat = new int[2];
+        for (long g = first; g < first + count; g++) {
+            // Switch seats every game so neither level keeps the first move
+            entrantInSeat[0] = g % 2 == 0 ? a : b;
+            entrantInSeat[1] = g % 2 == 0 ? b : a;
+            seats[0] = byEntrant[entrantInSeat[0]];
+            seats[1] = byEntrant[entrantInSeat[1]];
+            results.record(simulator.play(seats, masterMillis), entrantInSeat);
+        }
+        return results;
+    }
+
+    // Like Difficulty.newStrategy, but seeded, and Master searches on this thread only
+    private static CpuStrategy newStrategy(Difficulty difficulty, RandomGenerator random) {
+        switch (difficulty) {
+            case EASY:
+                return new EasyCpu(random);
+            case MASTER:
+                return new MasterCpu(new MctsPlanner(1, random.nextLong()));
+            default:
+                return difficulty.newStrategy();
+        }
+    }
+
+    // -------------------- Results --------------------
+
+    static final class Results {
+        final long[][] wins;   // wins[a][b]: games a won against b
+        final long[][] draws;  // draws[a][b] == draws[b][a]
+        final long[][] scores; // scores[a][s]: games where a scored s points
+        long games;
+        long firstSeatWins;
+        long firstSeatDraws;
+
+        Results(int entrants) {
+            wins = new long[entrants][entrants];
+            draws = new long[entrants][entrants];
+            scores = new long[entrants][MAX_SCORE + 1];
+        }
+
+        void record(GameState end, int[] entrantInSeat) {
+            int a = entrantInSeat[0];
+            int b = entrantInSeat[1];
+            int scoreA = end.getScore(0);
+            int scoreB = end.getScore(1);
+            scores[a][Math.min(scoreA, MAX_SCORE)]++;
+            scores[b][Math.min(scoreB, MAX_SCORE)]++;
+            if (scoreA > scoreB) {
+                wins[a][b]++;
+                firstSeatWins++;
+            } else if (scoreB > scoreA) {
+                wins[b][a]++;
+            } else {
+                draws[a][b]++;
+                draws[b][a]++;
+                firstSeatDraws++;
+            }
+            games++;
+        }
+
+        void merge(Results other) {
+            for (int a = 0; a < wins.length; a++) {
+                for (int b = 0; b < wins.length; b++) {
+                    wins[a][b] += other.wins[a][b];
+                    draws[a][b] += other.draws[a][b];
+                }
+                for (int s = 0; s <= MAX_SCORE; s++) {
+                    scores[a][s] += other.scores[a][s];
+                }
+            }
+            games += other.games;
+            firstSeatWins += other.firstSeatWins;
+            firstSeatDraws += other.firstSeatDraws;
+        }
+
+        void print(List<Difficulty> entrants) {
+            int n = entrants.size();
+            double[] elo = fitElo();
+
+            System.out.printf("%n%-8s %10s %7s %7s %7s %6s %6s %4s %4s %4s%n",
+                    "Level", "Games", "Win%", "Draw%", "Elo", "Mean", "SD", "P10", "P50", "P90");
+            for (int a = 0; a < n; a++) {
+                long played = 0;
+                long won = 0;
+                long drawn = 0;
+                for (int b = 0; b < n; b++) {
+                    played += wins[a][b] + wins[b][a] + draws[a][b];
+                    won += wins[a][b];
+                    drawn += draws[a][b];
+                }
+                double mean = 0;
+                double squares = 0;
+                for (int s = 0; s <= MAX_SCORE; s++) {
+                    mean += (double) s * scores[a][s];
+                    squares += (double) s * s * scores[a][s];
+                }
+                mean /= Math.max(1, played);
+                double sd = Math.sqrt(Math.max(0, squares / Math.max(1, played) - mean * mean));
+                System.out.printf("%-8s %,10d %6.1f%% %6.1f%% %7.0f %6.2f %6.2f %4d %4d %4d%n",
+                        entrants.get(a).getLabel(), played, percent(won, played), percent(drawn, played), elo[a],
+                        mean, sd, percentile(scores[a], played, 0.1), percentile(scores[a], played, 0.5),
+                        percentile(scores[a], played, 0.9));
+            }
+
+            System.out.printf("%nWin%% of row against column:%n%-8s", "");
+            for (Difficulty d : entrants) {
+                System.out.printf(" %8s", d.getLabel());
+            }
+            System.out.println();
+            for (int a = 0; a < n; a++) {
+                System.out.printf("%-8s", entrants.get(a).getLabel());
+                for (int b = 0; b < n; b++) {
+                    long played = wins[a][b] + wins[b][a] + draws[a][b];
+                    System.out.printf(a == b ? " %8s" : " %7.1f%%", a == b ? "-" : percent(wins[a][b], played));
+                }
+                System.out.println();
+            }
+            System.out.printf("%nFirst player: %.1f%% wins, %.1f%% draws%n",
+                    percent(firstSeatWins, games), percent(firstSeatDraws, games));
+        }
+
+        /**
+         * Elo ratings that best explain every result (draws count as half a win),
+         * found by repeated small corrections and centred on ELO_BASE.
+         */
+        double[] fitElo() {
+            int n = wins.length;
+            double[] rating = new double[n];
+            for (int iteration = 0; iteration < 10_000; iteration++) {
+                double largest = 0;
+                for (int a = 0; a < n; a++) {
+                    double actual = 0;
+                    double expected = 0;
+                    long played = 0;
+                    for (int b = 0; b < n; b++) {
+                        long games = wins[a][b] + wins[b][a] + draws[a][b];
+                        if (a == b || games == 0) {
+                            continue;
+                        }
+                        actual += wins[a][b] + draws[a][b] / 2.0;
+                        expected += games / (1 + Math.pow(10, (rating[b] - rating[a]) / 400));
+                        played += games;
+                    }
+                    if (played == 0) {
+                        continue;
+                    }
+                    double step = 400 * (actual - expected) / played;
+                    // An unbeaten (or winless) level has no finite rating; cap it
+                    rating[a] = Math.max(-2000, Math.min(2000, rating[a] + step));
+                    largest = Math.max(largest, Math.abs(step));
+                }
+                if (largest < 1e-6) {
+                    break;
+                }
+            }
+            double mean = 0;
+            for (double r : rating) {
+                mean += r / n;
+            }
+            for (int a = 0; a < n; a++) {
+                rating[a] += ELO_BASE - mean;
+            }
+            return rating;
+        }
+    }
+
+    // ---------------------- Helper Methods ----------------------
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    private static int percentile(long[] histogram, long total, double fraction) {
+        long target = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int s = 0; s < histogram.length; s++) {
+            seen += histogram[s];
+            if (seen >= Math.max(1, target)) {
+                return s;
+            }
+        }
+        return histogram.length - 1;
+    }
+}
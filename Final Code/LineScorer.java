@@ -0,0 +1,136 @@
+/**
+ * The rulebook's line scoring, kept up to date one stone at a time (no Swing):
+ * - A player's unbroken run of 2+ stones in a row or column scores
+ *   (sum of its squares' points) x (run length)
+ * - A stone can be in a horizontal and a vertical run, and scores in both
+ * - A stone in no run (no stone of its own left, right, above or below) scores nothing
+ *
+ * Each player's stones are one int bitmask per row and per column (boards are at most
+ * BoardLayout.MAX_SIZE wide), and square points are prefix sums per row and column, so a
+ * placement finds the runs it joins with a few bit scans and prices them with subtractions:
+ * constant time, whatever the board size. Used by GameState.
+ */
+public class LineScorer {
+
+    private final int size;
+    private final int[] rowPrefix;  // [row * (size + 1) + k]: points of (row, 0..k-1)
+    private final int[] colPrefix;  // [col * (size + 1) + k]: points of (0..k-1, col)
+
+    private final int[][] rows;     // rows[p][row]: bit col set if p has a stone on (row, col)
+    private final int[][] cols;     // cols[p][col]: bit row set if p has a stone on (row, col)
+    private final int[] totals;
+
+    public LineScorer(BoardState board) {
+        this.size = board.getBoardSize();
+        if (size >= Integer.SIZE) {
+            throw new IllegalArgumentException("Line scoring needs a board narrower than " + Integer.SIZE + " cells");
+        }
+        this.rowPrefix = new int[size * (size + 1)];
+        this.colPrefix = new int[size * (size + 1)];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int p = board.getSquareType(row * size + col).getPoints();
+                rowPrefix[row * (size + 1) + col + 1] = rowPrefix[row * (size + 1) + col] + p;
+                colPrefix[col * (size + 1) + row + 1] = colPrefix[col * (size + 1) + row] + p;
+            }
+        }
+        int players = board.getPlayerCount();
+        this.rows = new int[players][size];
+        this.cols = new int[players][size];
+        this.totals = new int[players];
+    }
+
+    // Copy constructor; the points tables never change and are shared
+    private LineScorer(LineScorer other) {
+        this.size = other.size;
+        this.rowPrefix = other.rowPrefix;
+        this.colPrefix = other.colPrefix;
+        this.rows = new int[other.rows.length][];
+        this.cols = new int[other.cols.length][];
+        for (int p = 0; p < rows.length; p++) {
+            rows[p] = other.rows[p].clone();
+            cols[p] = other.cols[p].clone();
+        }
+        this.totals = other.totals.clone();
+    }
+
+    public LineScorer copy() {
+        return new LineScorer(this);
+    }
+
+    /**
+     * Overwrites this with other (same board), without allocating.
+     */
+    public void copyFrom(LineScorer other) {
+        for (int p = 0; p < rows.length; p++) {
+            System.arraycopy(other.rows[p], 0, rows[p], 0, size);
+            System.arraycopy(other.cols[p], 0, cols[p], 0, size);
+        }
+        System.arraycopy(other.totals, 0, totals, 0, totals.length);
+    }
+
+    public void clear() {
+        for (int p = 0; p < rows.length; p++) {
+            java.util.Arrays.fill(rows[p], 0);
+            java.util.Arrays.fill(cols[p], 0);
+        }
+        java.util.Arrays.fill(totals, 0);
+    }
+
+    /**
+     * How much player's score would go up with a stone on the empty cell.
+     */
+    public int gain(int player, int cell) {
+        int row = cell / size;
+        int col = cell % size;
+        int rowMask = rows[player][row];
+        int colMask = cols[player][col];
+        int left = runBelow(rowMask, col);
+        int right = runAbove(rowMask, col);
+        int up = runBelow(colMask, row);
+        int down = runAbove(colMask, row);
+
+        // The runs on either side merge through the new stone (a lone stone makes a run of 1: nothing)
+        return runValue(rowPrefix, row, col - left, col + right)
+                - runValue(rowPrefix, row, col - left, col - 1) - runValue(rowPrefix, row, col + 1, col + right)
+                + runValue(colPrefix, col, row - up, row + down)
+                - runValue(colPrefix, col, row - up, row - 1) - runValue(colPrefix, col, row + 1, row + down);
+    }
+
+    /**
+     * Adds player's stone on the empty cell.
+     */
+    public void place(int player, int cell) {
+        totals[player] += gain(player, cell);
+        int row = cell / size;
+        int col = cell % size;
+        rows[player][row] |= 1 << col;
+        cols[player][col] |= 1 << row;
+    }
+
+    public int getScore(int player) {
+        return totals[player];
+    }
+
+    // ---------------------- Helper Methods ----------------------
+
+    // (sum of points) x length of the run from..to in one row or column; runs under 2 stones are 0
+    private int runValue(int[] prefix, int line, int from, int to) {
+        int length = to - from + 1;
+        if (length < 2) {
+            return 0;
+        }
+        int base = line * (size + 1);
+        return (prefix[base + to + 1] - prefix[base + from]) * length;
+    }
+
+    // Set bits directly below bit i (i-1, i-2, ...)
+    private static int runBelow(int mask, int i) {
+        return i == 0 ? 0 : Integer.numberOfLeadingZeros(~(mask << (Integer.SIZE - i)));
+    }
+
+    // Set bits directly above bit i (i+1, i+2, ...)
+    private static int runAbove(int mask, int i) {
+        return Integer.numberOfTrailingZeros(~(mask >>> (i + 1)));
+    }
+}
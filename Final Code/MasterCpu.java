@@ -0,0 +1,33 @@
+/**
+ * Master CPU: Expert holds, then a Monte Carlo tree search (MctsPlanner) picks the
+ * square, searching until the deadline it is given.
+ */
+public class MasterCpu extends ExpertCpu {
+
+    private final MctsPlanner planner;
+
+    public MasterCpu() {
+        this(new MctsPlanner());
+    }
+
+    public MasterCpu(MctsPlanner planner) {
+        this.planner = planner;
+    }
+
+    @Override
+    public int chooseMove(GameState state, int[] diceValues, MoveGenerator moves, int moveCount, long deadlineMillis) {
+        int cell = planner.chooseCell(state, diceValues, deadlineMillis);
+        // The fewest dice that reach that cell
+        for (int m = 0; m < moveCount; m++) {
+            if (moves.getCell(m) == cell) {
+                return m;
+            }
+        }
+        return super.chooseMove(state, diceValues, moves, moveCount, deadlineMillis);
+    }
+
+    @Override
+    public void stopThinking() {
+        planner.stop();
+    }
+}
@@ -0,0 +1,470 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Monte Carlo Tree Search for choosing where to place a stone:
+ * - Root-parallel: every worker grows its own tree on a shared ForkJoinPool,
+ *   and the root visit counts are summed at the end
+ * - Open-loop tree over placement choices; dice for later turns are sampled per iteration
+ * - Anytime: searches until the given deadline and then returns the most visited cell
+ *
+ * Simulated turns follow PlayoutPolicy (reroll until a 2+ point square is reachable),
+ * and playouts place greedily by the game's scoring rule (the most line gain under LINES)
+ * with some randomness.
+ *
+ * The same position is often reached through different move orders, and by every worker.
+ * Backed-up results are also added to a TranspositionTable keyed by the Zobrist hash of the
+ * position after each move; a node seeing a move for the first time starts it from those
+ * shared stats (capped, so its own playouts soon take over). The table is kept between calls.
+ *
+ * Trees live in flat arrays (one slot per node and action) that are pooled and reused by every
+ * search, so a move allocates nothing per node. The total size follows the heap: at most
+ * 1/8 of it, capped at MAX_NODE_SLOTS (64 MB), split into one tree per POOL thread, and the pool
+ * keeps at most that many spare trees. Workers beyond the budget (more planners or workers at
+ * once than POOL threads) get small trees that are dropped after their search.
+ */
+public class MctsPlanner {
+
+    // Shared by every planner; sized to the machine
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private static final double EXPLORATION = 1.4;
+    private static final double PLAYOUT_RANDOMNESS = 0.25;
+    // Tree memory, in slots (each node has one per cell, plus one; a slot is a child index,
+    // a visit count and a reward sum): at most 80,000 nodes on the standard board, fewer on bigger ones
+    private static final int MAX_NODE_SLOTS = 4_000_000;
+    private static final int BYTES_PER_SLOT = 16;
+    private static final int TOTAL_NODE_SLOTS = (int) Math.min(MAX_NODE_SLOTS,
+            Runtime.getRuntime().maxMemory() / 8 / BYTES_PER_SLOT);
+    // Trees past the budget get this many slots (1 MB)
+    private static final int MIN_TREE_SLOTS = 1 << 16;
+    private static final int TREE_SLOTS = Math.max(MIN_TREE_SLOTS, TOTAL_NODE_SLOTS / POOL.getParallelism());
+    // Full-size trees not in use by a search right now, at most POOL.getParallelism(), and the
+    // slots of every tree in use or spare (both guarded by SPARE_TREES)
+    private static final ArrayDeque<Tree> SPARE_TREES = new ArrayDeque<>();
+    private static long allocatedSlots;
+    private static final int MAX_TURNS = 1000;
+    private static final double MARGIN_WEIGHT = 0.3;
+    private static final double MARGIN_SCALE = 20.0;
+    private static final int TABLE_SIZE_BITS = 18;
+    private static final int SEED_CAP = 8;
+
+    private final int workers;
+    private final SplittableRandom seeds;
+    private final TranspositionTable table = new TranspositionTable(TABLE_SIZE_BITS);
+    private ZobristHash zobrist;
+    private long lastIterations;
+    // chooseCell calls so far; those numbered up to stoppedThrough end early (see stop())
+    private final AtomicLong searches = new AtomicLong();
+    private volatile long stoppedThrough;
+
+    public MctsPlanner() {
+        this(POOL.getParallelism(), System.nanoTime());
+    }
+
+    public MctsPlanner(int workers, long seed) {
+        this.workers = Math.max(1, workers);
+        this.seeds = new SplittableRandom(seed);
+    }
+
+    /**
+     * Picks the cell for the current player of state, who has rolled diceValues.
+     * Returns -1 if no empty cell can take these dice.
+     * Searches until deadlineMillis (System.currentTimeMillis()), or until stop(); state is not modified.
+     */
+    public int chooseCell(GameState state, int[] diceValues, long deadlineMillis) {
+        long search = searches.incrementAndGet();
+        BoardState board = state.getBoard();
+        int fullKey = PlacementTable.keyOf(diceValues, 63);
+        long[] rootLegal = board.newCellSet();
+        board.getOpenCellsOfTypes(DiceOutcomes.reachableTypes(DiceOutcomes.fullRollIndex(fullKey)), rootLegal);
+        lastIterations = 0;
+        if (CellBits.count(rootLegal) <= 1) {
+            return CellBits.next(rootLegal, 0);
+        }
+
+        int cells = board.getCellCount();
+        if (zobrist == null || zobrist.getCellCount() != cells || zobrist.getPlayerCount() != state.getPlayerCount()) {
+            zobrist = new ZobristHash(cells, state.getPlayerCount());
+            table.clear();
+        }
+        table.newSearch();
+
+        List<Callable<Worker>> tasks = new ArrayList<>();
+        List<Tree> trees = new ArrayList<>();
+        long[] visits = new long[cells + 1];
+        double[] rewards = new double[cells + 1];
+        try {
+            for (int i = 0; i < workers; i++) {
+                Tree tree = borrowTree();
+                trees.add(tree);
+                Worker worker = new Worker(state, rootLegal, seeds.split(), deadlineMillis,
+                        () -> stoppedThrough >= search, tree, zobrist, table);
+                tasks.add(() -> {
+                    worker.run();
+                    return worker;
+                });
+            }
+            for (Future<Worker> future : POOL.invokeAll(tasks)) {
+                Worker worker = future.get();
+                lastIterations += worker.iterations;
+                // The root is node 0, so its slots come first
+                for (int a = 0; a <= cells; a++) {
+                    visits[a] += worker.tree.visits[a];
+                    rewards[a] += worker.tree.rewards[a];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Let the caller fall back to a simpler move
+            throw new IllegalStateException("MCTS worker failed", e.getCause());
+        } finally {
+            returnTrees(trees);
+        }
+
+        // Most visited root cell; on ties (or no search at all) the best average, then the most
+        // the stone scores under the game's rule
+        int best = -1;
+        for (int cell = CellBits.next(rootLegal, 0); cell >= 0; cell = CellBits.next(rootLegal, cell + 1)) {
+            if (best < 0 || visits[cell] > visits[best]
+                    || (visits[cell] == visits[best] && average(rewards, visits, cell) > average(rewards, visits, best))
+                    || (visits[cell] == visits[best] && visits[cell] == 0
+                        && state.scoreGain(cell) > state.scoreGain(best))) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Makes a chooseCell running on another thread return within a few playouts, with the
+     * cell it would pick now. Searches started afterwards run normally.
+     */
+    public void stop() {
+        stoppedThrough = searches.get();
+    }
+
+    /**
+     * Number of playouts the last chooseCell call ran (over all workers).
+     */
+    public long getLastIterations() {
+        return lastIterations;
+    }
+
+    private static double average(double[] rewards, long[] visits, int action) {
+        return visits[action] == 0 ? 0 : rewards[action] / visits[action];
+    }
+
+    // A spare tree, else a new full-size one while the budget lasts, else a small one
+    private static Tree borrowTree() {
+        int slots;
+        synchronized (SPARE_TREES) {
+            Tree tree = SPARE_TREES.poll();
+            if (tree != null) {
+                return tree;
+            }
+            slots = allocatedSlots + TREE_SLOTS <= TOTAL_NODE_SLOTS ? TREE_SLOTS : MIN_TREE_SLOTS;
+            allocatedSlots += slots;
+        }
+        try {
+            return new Tree(slots);
+        } catch (OutOfMemoryError e) {
+            synchronized (SPARE_TREES) {
+                allocatedSlots -= slots;
+            }
+            throw e;
+        }
+    }
+
+    // Keeps full-size trees for later searches while there is room; the rest go to the GC
+    private static void returnTrees(List<Tree> trees) {
+        synchronized (SPARE_TREES) {
+            for (Tree tree : trees) {
+                if (tree.visits.length == TREE_SLOTS && SPARE_TREES.size() < POOL.getParallelism()) {
+                    SPARE_TREES.push(tree);
+                } else {
+                    allocatedSlots -= tree.visits.length;
+                }
+            }
+        }
+    }
+
+    // -------------------- Search --------------------
+
+    /**
+     * One worker's tree. Node n owns slots [n * actions, (n + 1) * actions): the child node reached
+     * by each action (0 = not expanded; node 0 is the root, nobody's child), its visits and its
+     * summed rewards. reset() clears only what the last search used.
+     */
+    private static final class Tree {
+        final int[] children;
+        final int[] visits;
+        final double[] rewards;
+        int[] player = new int[0];      // per node: who places there
+        int[] totalVisits = new int[0]; // per node
+        long[] looked = new long[0];    // per node, words long: cells already looked up in the table
+        int actions;
+        int words;
+        int capacity;                   // nodes
+        int nodes;
+
+        Tree(int slots) {
+            children = new int[slots];
+            visits = new int[slots];
+            rewards = new double[slots];
+        }
+
+        void reset(int actions, int words) {
+            int used = nodes * this.actions;
+            java.util.Arrays.fill(children, 0, used, 0);
+            java.util.Arrays.fill(visits, 0, used, 0);
+            java.util.Arrays.fill(rewards, 0, used, 0);
+            java.util.Arrays.fill(looked, 0, Math.min(looked.length, nodes * this.words), 0L);
+            this.actions = actions;
+            this.words = words;
+            this.capacity = Math.max(1, visits.length / actions);
+            if (player.length < capacity) {
+                player = new int[capacity];
+                totalVisits = new int[capacity];
+            }
+            if (looked.length < capacity * words) {
+                looked = new long[capacity * words];
+            }
+            nodes = 0;
+        }
+
+        boolean isFull() {
+            return nodes == capacity;
+        }
+
+        int newNode(int who) {
+            int node = nodes++;
+            player[node] = who;
+            totalVisits[node] = 0;
+            return node;
+        }
+    }
+
+    private static final class Worker {
+        final GameState rootState;
+        final GameState scratch;
+        final long[] rootLegal;
+        final long[] legalScratch;
+        final SplittableRandom random;
+        final long deadline;
+        final BooleanSupplier stopped;
+        final Tree tree;
+        final int passAction;
+        final int actions;
+        final int[] diceScratch = new int[6];
+        final double[] result;
+        final ZobristHash zobrist;
+        final TranspositionTable table;
+        final long rootHash;
+        final int playerCount;
+
+        int[] pathNodes = new int[64];
+        int[] pathActions = new int[64];
+        long[] pathHashes = new long[64];
+        long hash;
+        long iterations = 0;
+
+        Worker(GameState state, long[] rootLegal, SplittableRandom random, long deadline, BooleanSupplier stopped,
+               Tree tree, ZobristHash zobrist, TranspositionTable table) {
+            this.rootState = state.copy();
+            this.scratch = state.copy();
+            this.rootLegal = rootLegal;
+            this.legalScratch = state.getBoard().newCellSet();
+            this.random = random;
+            this.deadline = deadline;
+            this.stopped = stopped;
+            this.tree = tree;
+            this.passAction = state.getBoard().getCellCount();
+            this.actions = passAction + 1;
+            tree.reset(actions, rootLegal.length);
+            tree.newNode(state.getCurrentPlayer());
+            this.result = new double[state.getPlayerCount()];
+            this.zobrist = zobrist;
+            this.table = table;
+            this.rootHash = zobrist.hash(state);
+            this.playerCount = state.getPlayerCount();
+        }
+
+        void run() {
+            do {
+                for (int i = 0; i < 16; i++) {
+                    iterate();
+                }
+            } while (System.currentTimeMillis() < deadline && !stopped.getAsBoolean());
+        }
+
+        private void iterate() {
+            scratch.copyFrom(rootState);
+            hash = rootHash;
+            int node = 0;
+            long[] legal = rootLegal;
+            int depth = 0;
+            int turns = 0;
+            while (true) {
+                if (node != 0) {
+                    seed(node, legal);
+                }
+                int action = select(node, legal);
+                play(action);
+                push(depth++, node, action);
+                turns++;
+                if (scratch.isGameOver()) {
+                    break;
+                }
+                int child = tree.children[node * actions + action];
+                if (child == 0) {
+                    if (!tree.isFull()) {
+                        tree.children[node * actions + action] = tree.newNode(scratch.getCurrentPlayer());
+                    }
+                    playout(turns);
+                    break;
+                }
+                node = child;
+                rollTurn();
+                legal = legalScratch;
+            }
+            score();
+            for (int i = 0; i < depth; i++) {
+                int n = pathNodes[i];
+                int slot = n * actions + pathActions[i];
+                double reward = result[tree.player[n]];
+                tree.visits[slot]++;
+                tree.rewards[slot] += reward;
+                tree.totalVisits[n]++;
+                table.add(pathHashes[i], 1, reward);
+            }
+            iterations++;
+        }
+
+        // Starts moves this node has not tried yet from the shared stats of the position they lead to
+        private void seed(int node, long[] legal) {
+            int player = tree.player[node];
+            int base = node * actions;
+            int lookedBase = node * tree.words;
+            long sideChange = zobrist.side(player) ^ zobrist.side((player + 1) % playerCount);
+            for (int w = 0; w < legal.length; w++) {
+                long fresh = legal[w] & ~tree.looked[lookedBase + w];
+                tree.looked[lookedBase + w] |= fresh;
+                while (fresh != 0) {
+                    int cell = (w << 6) + Long.numberOfTrailingZeros(fresh);
+                    fresh &= fresh - 1;
+                    if (tree.visits[base + cell] != 0) {
+                        continue;
+                    }
+                    long entry = table.probe(hash ^ zobrist.stone(player, cell) ^ sideChange);
+                    int seeded = Math.min(TranspositionTable.visits(entry), SEED_CAP);
+                    if (seeded > 0) {
+                        tree.visits[base + cell] = seeded;
+                        tree.rewards[base + cell] = TranspositionTable.averageReward(entry) * seeded;
+                        tree.totalVisits[node] += seeded;
+                    }
+                }
+            }
+        }
+
+        // UCB1 over the legal cells (unvisited ones first, picked at random)
+        private int select(int node, long[] legal) {
+            int best = passAction;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            int unvisitedSeen = 0;
+            int base = node * actions;
+            double logTotal = Math.log(tree.totalVisits[node] + 1);
+            for (int cell = CellBits.next(legal, 0); cell >= 0; cell = CellBits.next(legal, cell + 1)) {
+                int v = tree.visits[base + cell];
+                if (v == 0) {
+                    unvisitedSeen++;
+                    if (random.nextInt(unvisitedSeen) == 0) {
+                        best = cell;
+                    }
+                    bestScore = Double.POSITIVE_INFINITY;
+                } else if (unvisitedSeen == 0) {
+                    double score = tree.rewards[base + cell] / v + EXPLORATION * Math.sqrt(logTotal / v);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = cell;
+                    }
+                }
+            }
+            return best;
+        }
+
+        private void playout(int turns) {
+            while (!scratch.isGameOver() && turns < MAX_TURNS) {
+                play(rollTurn() ? pickPlayoutCell(legalScratch) : passAction);
+                turns++;
+            }
+        }
+
+        private int pickPlayoutCell(long[] legal) {
+            return PlayoutPolicy.pickCell(scratch, legal, random, PLAYOUT_RANDOMNESS);
+        }
+
+        // Simulates one turn of dice for the player to move; legalScratch gets the cells they could take
+        private boolean rollTurn() {
+            return PlayoutPolicy.rollTurn(scratch.getBoard(), random, diceScratch, legalScratch);
+        }
+
+        private void play(int action) {
+            int player = scratch.getCurrentPlayer();
+            if (action != passAction) {
+                scratch.placeStone(action);
+                hash ^= zobrist.stone(player, action);
+            }
+            scratch.nextPlayer();
+            hash ^= zobrist.side(player) ^ zobrist.side(scratch.getCurrentPlayer());
+        }
+
+        // Mostly win/loss (shared wins split evenly), plus a small score-margin term
+        // so that the search still separates moves when the result is already decided
+        private void score() {
+            int top = Integer.MIN_VALUE;
+            int second = Integer.MIN_VALUE;
+            int winners = 0;
+            for (int p = 0; p < result.length; p++) {
+                int s = scratch.getScore(p);
+                if (s > top) {
+                    second = top;
+                    top = s;
+                    winners = 1;
+                } else if (s == top) {
+                    second = top;
+                    winners++;
+                } else if (s > second) {
+                    second = s;
+                }
+            }
+            for (int p = 0; p < result.length; p++) {
+                int s = scratch.getScore(p);
+                double win = s == top ? 1.0 / winners : 0.0;
+                int margin = s - (s == top ? second : top);
+                double marginTerm = 0.5 + Math.max(-1.0, Math.min(1.0, margin / MARGIN_SCALE)) * 0.5;
+                result[p] = (1 - MARGIN_WEIGHT) * win + MARGIN_WEIGHT * marginTerm;
+            }
+        }
+
+        private void push(int depth, int node, int action) {
+            if (depth == pathNodes.length) {
+                pathNodes = java.util.Arrays.copyOf(pathNodes, depth * 2);
+                pathActions = java.util.Arrays.copyOf(pathActions, depth * 2);
+                pathHashes = java.util.Arrays.copyOf(pathHashes, depth * 2);
+            }
+            pathNodes[depth] = node;
+            pathActions[depth] = action;
+            pathHashes[depth] = hash;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Generates every legal (dice subset, cell, points) move for one roll:
+ * - Visits all 63 non-empty subsets of the 6 dice by bitmask, computing each key from a smaller subset
+ * - Subsets with the same multiset share one board lookup (memoized by key)
+ * - Results go into reusable primitive arrays, so generating allocates nothing
+ *   (they grow once if a bigger board comes along)
+ *
+ * Moves are ordered by subset (fewest dice first, then lowest die indices first)
+ * and by cell (row-major) within a subset.
+ */
+public class MoveGenerator {
+
+    // All non-empty 6-bit subsets in generation order
+    static final int[] SUBSET_ORDER = new int[63];
+
+    static {
+        for (int i = 0; i < 63; i++) {
+            SUBSET_ORDER[i] = i + 1;
+        }
+        // Insertion sort: by dice count, then lexicographically by die indices
+        for (int i = 1; i < 63; i++) {
+            int mask = SUBSET_ORDER[i];
+            int j = i - 1;
+            while (j >= 0 && comesBefore(mask, SUBSET_ORDER[j])) {
+                SUBSET_ORDER[j + 1] = SUBSET_ORDER[j];
+                j--;
+            }
+            SUBSET_ORDER[j + 1] = mask;
+        }
+    }
+
+    private final int[] subsetKeys = new int[64];
+
+    // Key -> valid cells memo for the current roll (open addressing, cleared per call);
+    // slot i's cell set is memoCells[i * words .. (i + 1) * words)
+    private final int[] memoKeys = new int[128];
+    private long[] memoCells = new long[0];
+    private long[] scratchCells = new long[0];
+    private int words;
+
+    private int[] moveSubsets = new int[0];
+    private int[] moveCells = new int[0];
+    private int[] movePoints = new int[0];
+    private int moveCount;
+
+    /**
+     * Fills the move list for this board and dice roll.
+     * Returns the number of legal moves.
+     */
+    public int generate(BoardState board, int[] diceValues) {
+        subsetKeys[0] = 0;
+        for (int mask = 1; mask < 64; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            subsetKeys[mask] = subsetKeys[mask & (mask - 1)] + PlacementTable.FACE_WEIGHT[diceValues[lowest]];
+        }
+        java.util.Arrays.fill(memoKeys, 0);
+        ensureCapacity(board);
+
+        moveCount = 0;
+        for (int i = 0; i < SUBSET_ORDER.length; i++) {
+            int subset = SUBSET_ORDER[i];
+            int base = validCellsFor(board, subsetKeys[subset]);
+            for (int w = 0; w < words; w++) {
+                long cells = memoCells[base + w];
+                while (cells != 0) {
+                    int cell = (w << 6) + Long.numberOfTrailingZeros(cells);
+                    cells &= cells - 1;
+                    moveSubsets[moveCount] = subset;
+                    moveCells[moveCount] = cell;
+                    movePoints[moveCount] = board.getSquareType(cell).getPoints();
+                    moveCount++;
+                }
+            }
+        }
+        return moveCount;
+    }
+
+    /**
+     * Number of consecutive moves starting at index that use the same dice subset.
+     */
+    public int runLength(int index) {
+        int end = index;
+        while (end < moveCount && moveSubsets[end] == moveSubsets[index]) {
+            end++;
+        }
+        return end - index;
+    }
+
+    // -------------------- Getters --------------------
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getSubset(int index) {
+        return moveSubsets[index];
+    }
+
+    public int getCell(int index) {
+        return moveCells[index];
+    }
+
+    public int getPoints(int index) {
+        return movePoints[index];
+    }
+
+    /**
+     * The PlacementTable key of a dice subset from the last generate() call.
+     */
+    public int getSubsetKey(int subset) {
+        return subsetKeys[subset];
+    }
+
+    // -------------------- Helpers --------------------
+
+    private void ensureCapacity(BoardState board) {
+        int maxMoves = 63 * board.getCellCount();
+        if (moveCells.length < maxMoves) {
+            moveSubsets = new int[maxMoves];
+            moveCells = new int[maxMoves];
+            movePoints = new int[maxMoves];
+        }
+        words = CellBits.words(board.getCellCount());
+        if (scratchCells.length != words) {
+            memoCells = new long[128 * words];
+            scratchCells = board.newCellSet();
+        }
+    }
+
+    // Offset of key's valid cells in memoCells
+    private int validCellsFor(BoardState board, int key) {
+        // Keys are never 0 here, so 0 marks an empty slot
+        int slot = (key * 0x9E3779B1) >>> 25;
+        while (memoKeys[slot] != 0) {
+            if (memoKeys[slot] == key) {
+                return slot * words;
+            }
+            slot = (slot + 1) & 127;
+        }
+        board.getValidCells(key, scratchCells);
+        memoKeys[slot] = key;
+        System.arraycopy(scratchCells, 0, memoCells, slot * words, words);
+        return slot * words;
+    }
+
+
+    private static boolean comesBefore(int a, int b) {
+        int countA = Integer.bitCount(a);
+        int countB = Integer.bitCount(b);
+        if (countA != countB) {
+            return countA < countB;
+        }
+        // Same size: the subset holding the lowest differing die index comes first
+        int lowestDiff = Integer.numberOfTrailingZeros(a ^ b);
+        return (a & (1 << lowestDiff)) != 0;
+    }
+}
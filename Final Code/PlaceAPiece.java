@@ -1,36 +1,30 @@
-import java.awt.*;
 import java.util.ArrayList;
 import javax.swing.*;
 
 /**
  * A helper class to manage all piece-placement logic on the board:
  * - Checking if a dice combination is valid for a given square
- * - Physically placing the piece onto the JButton[][]
- * - Handling partial placements (currentStone)
+ * - Telling the player why a placement was refused
+ * Occupancy and square types are read from the headless BoardState; the stone itself
+ * is placed through GameEngine and drawn by BoardCanvas.
  */
 public class PlaceAPiece {
 
-    private final int boardSize;
-    private final JButton[][] boardSquares;
-    private final String[] squareTypes;
+    private final BoardState board;
 
-    public PlaceAPiece(int boardSize, JButton[][] boardSquares, String[] squareTypes) {
-        this.boardSize = boardSize;
-        this.boardSquares = boardSquares;
-        this.squareTypes = squareTypes;
+    public PlaceAPiece(BoardState board) {
+        this.board = board;
     }
 
     /**
      * Attempts to place the piece on the board at (row, col)
-     * using the selected dice values.
+     * using the selected dice (as a PlacementTable key).
      * - If it's invalid, show an error message and return false.
-     * - If valid, place the piece and return true.
+     * - If valid, return true (the caller places the stone).
      */
     public boolean attemptPlacePiece(JFrame parent,
             int row, int col,
-            int currentStoneRow, int currentStoneCol,
-            JPanel currentStone,
-            ArrayList<Integer> selectedValues,
+            int selectedKey,
             boolean isHumanPlayer) {
         // If not human, skip. (Optional check)
         if (!isHumanPlayer) {
@@ -38,178 +32,51 @@ public class PlaceAPiece {
         }
 
         // If no dice are selected, block
-        if (selectedValues.isEmpty()) {
+        if (selectedKey == 0) {
             JOptionPane.showMessageDialog(parent, "Please select dice first!");
             return false;
         }
 
-        // If this square is already occupied by a different stone
-        if (boardSquares[row][col].getComponentCount() > 1
-                && !(row == currentStoneRow && col == currentStoneCol)) {
+        // If this square is already occupied by a committed stone
+        int index = row * board.getBoardSize() + col;
+        if (board.isOccupied(index)) {
             JOptionPane.showMessageDialog(parent, "This square is already occupied!");
             return false;
         }
 
         // Check if it's valid for that square
-        int index = row * boardSize + col;
-        String squareType = squareTypes[index];
-        if (!isValidPlacement(squareType, selectedValues)) {
+        SquareType squareType = board.getSquareType(index);
+        if (!isValidPlacement(squareType, selectedKey)) {
             JOptionPane.showMessageDialog(parent,
                     "Invalid placement! This combination doesn't match the square requirements.");
             return false;
         }
 
-        // If valid, place the piece
-        placePiece(row, col, currentStoneRow, currentStoneCol, currentStone);
-
         return true;
     }
 
-    /**
-     * Actually put the piece on (row, col).
-     * If there's an existing "currentStone" on the board, remove it first.
-     */
-    public void placePiece(int row, int col, int currentStoneRow, int currentStoneCol, JPanel currentStone) {
-        if (currentStone != null && currentStoneRow >= 0 && currentStoneCol >= 0) {
-            boardSquares[currentStoneRow][currentStoneCol].remove(currentStone);
-            boardSquares[currentStoneRow][currentStoneCol].revalidate();
-            boardSquares[currentStoneRow][currentStoneCol].repaint();
-        }
-        boardSquares[row][col].add(currentStone, BorderLayout.CENTER);
-        boardSquares[row][col].revalidate();
-        boardSquares[row][col].repaint();
-    }
-
     /**
      * Checks whether the selected dice values fulfill the requirements of
      * squareType.
-     * Migrate your existing logic from isValidPlacement(...) here.
+     * Delegates to the key-based check; the caller's list is left untouched.
      */
-    public boolean isValidPlacement(String squareType, ArrayList<Integer> selectedValues) {
-        if (selectedValues.isEmpty())
-            return false;
-        selectedValues.sort(null);
-
-        switch (squareType) {
-            case "≤12": {
-                int sum = 0;
-                for (int value : selectedValues)
-                    sum += value;
-                return sum <= 12;
-            }
-            case "≥30": {
-                int sum = 0;
-                for (int value : selectedValues)
-                    sum += value;
-                return sum >= 30;
-            }
-            case "=1,3,5": {
-                // Must use all 6 dice and all values must be odd.
-                if (selectedValues.size() != 6) return false;
-                for (int value : selectedValues) {
-                    if (value % 2 == 0) return false;
-                }
-                return true;
-            }
-            case "=2,4,6": {
-                // Must use all 6 dice and all values must be even.
-                if (selectedValues.size() != 6) return false;
-                for (int value : selectedValues) {
-                    if (value % 2 != 0) return false;
-                }
-                return true;
-            }
-            
-            case "ABCDE":
-                return (selectedValues.contains(1) && selectedValues.contains(2) &&
-                        selectedValues.contains(3) && selectedValues.contains(4) &&
-                        selectedValues.contains(5));
-            case "ABCD":
-                return (selectedValues.contains(1) && selectedValues.contains(2) &&
-                        selectedValues.contains(3) && selectedValues.contains(4));
-            case "AAA":
-                return hasAtLeastCount(selectedValues, 3);
-            case "AAAA":
-                return hasAtLeastCount(selectedValues, 4);
-            case "AA/BB":
-                return hasPairs(selectedValues, 2);
-            case "AA/BB/CC":
-                return hasPairs(selectedValues, 3);
-            case "AAA/BB":
-                return hasFullHouse(selectedValues);
-            case "AAAA/BB":
-                return hasFourAndPair(selectedValues);
-            case "AAA/BBB":
-                return hasTwoTriplets(selectedValues);
-            default:
-                return false;
-        }
-    }
-
-    // ---------------------- Helper Methods ----------------------
-
-    private boolean hasAtLeastCount(ArrayList<Integer> values, int needed) {
-        int[] counts = new int[7];
-        for (int v : values)
-            counts[v]++;
-        for (int i = 1; i <= 6; i++) {
-            if (counts[i] >= needed)
-                return true;
-        }
-        return false;
+    public boolean isValidPlacement(SquareType squareType, ArrayList<Integer> selectedValues) {
+        return isValidPlacement(squareType, PlacementTable.keyOf(selectedValues));
     }
 
-    private boolean hasPairs(ArrayList<Integer> values, int pairsNeeded) {
-        int[] counts = new int[7];
-        for (int v : values)
-            counts[v]++;
-        int pairCount = 0;
-        for (int i = 1; i <= 6; i++) {
-            if (counts[i] >= 2)
-                pairCount++;
-        }
-        return pairCount >= pairsNeeded;
-    }
-
-    private boolean hasFullHouse(ArrayList<Integer> values) {
-        int[] counts = new int[7];
-        for (int v : values)
-            counts[v]++;
-        boolean hasThree = false;
-        boolean hasPair = false;
-        for (int i = 1; i <= 6; i++) {
-            if (counts[i] >= 3)
-                hasThree = true;
-            else if (counts[i] >= 2)
-                hasPair = true;
-        }
-        return hasThree && hasPair;
-    }
-
-    private boolean hasFourAndPair(ArrayList<Integer> values) {
-        int[] counts = new int[7];
-        for (int v : values)
-            counts[v]++;
-        boolean hasFour = false;
-        boolean hasPair = false;
-        for (int i = 1; i <= 6; i++) {
-            if (counts[i] >= 4)
-                hasFour = true;
-            else if (counts[i] >= 2)
-                hasPair = true;
-        }
-        return hasFour && hasPair;
+    /**
+     * Same check for the dice picked out by selectionMask (bit i = die i).
+     * Allocation-free, so it is safe to call in tight loops.
+     */
+    public boolean isValidPlacement(SquareType squareType, int[] diceValues, int selectionMask) {
+        return isValidPlacement(squareType, PlacementTable.keyOf(diceValues, selectionMask));
     }
 
-    private boolean hasTwoTriplets(ArrayList<Integer> values) {
-        int[] counts = new int[7];
-        for (int v : values)
-            counts[v]++;
-        int tripletCount = 0;
-        for (int i = 1; i <= 6; i++) {
-            if (counts[i] >= 3)
-                tripletCount++;
-        }
-        return tripletCount >= 2;
+    /**
+     * Same check for a multiset already encoded as a PlacementTable key.
+     * A key of 0 (no dice) is never valid.
+     */
+    public boolean isValidPlacement(SquareType squareType, int diceKey) {
+        return squareType.isSatisfiedBy(diceKey);
     }
 }
@@ -0,0 +1,100 @@
+import java.util.List;
+
+/**
+ * Precomputed lookup table for the square-requirement checks.
+ * - Every multiset of 1-6 dice is encoded as a base-7 key (one digit per face)
+ * - For each of the 923 possible multisets we store a bitmask of the square types it satisfies
+ *   (bit i = SquareType with ordinal i)
+ * - The table is built once when the class is loaded, so a check is one array read plus an AND
+ */
+public final class PlacementTable {
+
+    // Key weight of one die showing each face (index 0 unused)
+    public static final int[] FACE_WEIGHT = { 0, 1, 7, 49, 343, 2401, 16807 };
+
+    // 7^6 keys: each face can appear 0..6 times
+    public static final int KEY_SPACE = 117649;
+
+    private static final char[] TYPE_MASKS = new char[KEY_SPACE];
+
+    static {
+        int[] counts = new int[7];
+        fillTable(counts, 1, 0);
+    }
+
+    private PlacementTable() {
+    }
+
+    /**
+     * Encodes a list of dice values (1-6) as a table key.
+     * The list is not modified.
+     */
+    public static int keyOf(List<Integer> values) {
+        int key = 0;
+        for (int i = 0; i < values.size(); i++) {
+            key += FACE_WEIGHT[values.get(i)];
+        }
+        return key;
+    }
+
+    /**
+     * Encodes the dice picked out by selectionMask (bit i = die i) as a table key.
+     * Allocates nothing and leaves diceValues untouched.
+     */
+    public static int keyOf(int[] diceValues, int selectionMask) {
+        int key = 0;
+        for (int i = 0; i < diceValues.length; i++) {
+            if ((selectionMask & (1 << i)) != 0) {
+                key += FACE_WEIGHT[diceValues[i]];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Bitmask of every square type satisfied by the multiset with this key.
+     * Returns 0 for the empty multiset.
+     */
+    public static int typesFor(int key) {
+        return TYPE_MASKS[key];
+    }
+
+    // ---------------------- Table construction ----------------------
+
+    // Walks every count vector with at most 6 dice in total
+    private static void fillTable(int[] counts, int face, int used) {
+        if (face > 6) {
+            if (used > 0) {
+                TYPE_MASKS[encode(counts)] = (char) computeMask(counts, used);
+            }
+            return;
+        }
+        for (int n = 0; used + n <= 6; n++) {
+            counts[face] = n;
+            fillTable(counts, face + 1, used + n);
+        }
+        counts[face] = 0;
+    }
+
+    private static int encode(int[] counts) {
+        int key = 0;
+        for (int face = 1; face <= 6; face++) {
+            key += counts[face] * FACE_WEIGHT[face];
+        }
+        return key;
+    }
+
+    private static int computeMask(int[] counts, int size) {
+        int sum = 0;
+        for (int face = 1; face <= 6; face++) {
+            sum += face * counts[face];
+        }
+        int mask = 0;
+        for (SquareType type : SquareType.values()) {
+            if (type.test(counts, size, sum)) {
+                mask |= type.bit();
+            }
+        }
+        return mask;
+    }
+}
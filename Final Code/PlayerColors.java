@@ -0,0 +1,47 @@
+import java.awt.Color;
+
+/**
+ * Stone / bobblehead colors players can pick, by name (shared by the menu and PlayerSettings).
+ * There are more colors than GameState.MAX_PLAYERS, so a full table still has a choice.
+ */
+public final class PlayerColors {
+
+    public static final String[] NAMES = {
+        "Blue", "Red", "Green", "Orange", "Purple", "Black", "Teal", "Brown", "Magenta", "Gold"
+    };
+
+    private static final Color[] COLORS = {
+        new Color(30, 144, 255),
+        new Color(220, 20, 60),
+        new Color(50, 205, 50),
+        new Color(255, 165, 0),
+        new Color(128, 0, 128),
+        new Color(30, 30, 30), // not pure black, so stones stay visible against outlines
+        new Color(0, 128, 128),
+        new Color(139, 69, 19),
+        new Color(255, 0, 255),
+        new Color(218, 165, 32)
+    };
+
+    private PlayerColors() {
+    }
+
+    /**
+     * The color called name, or blue for an unknown name.
+     */
+    public static Color get(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return COLORS[i];
+            }
+        }
+        return Color.BLUE;
+    }
+
+    /**
+     * Name of the color player (0-based) gets by default; every seat starts with a different one.
+     */
+    public static String defaultName(int player) {
+        return NAMES[player % NAMES.length];
+    }
+}
@@ -14,7 +14,8 @@ public class PlayerSettings extends JDialog {
     public PlayerSettings(JFrame parent, int playerCount, JComboBox<String>[] difficultyDropdowns, 
                           JComboBox<String>[] colorDropdowns, BobbleheadPanel[] bobbleheads, boolean[] isHuman) {
         super(parent, "Game Settings", true);
-        this.setSize(600, 400);
+        // One column of players, two for bigger tables
+        this.setSize(playerCount > 4 ? 900 : 600, 400);
         this.setLocationRelativeTo(parent);
         
         this.playerCount = playerCount;
@@ -27,7 +28,7 @@ public class PlayerSettings extends JDialog {
     }
     
     private void initUI() {
-        JPanel playerSettingsPanel = new JPanel(new GridLayout(playerCount, 1, 5, 10));
+        JPanel playerSettingsPanel = new JPanel(new GridLayout(0, playerCount > 4 ? 2 : 1, 5, 10));
         playerSettingsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
         for (int i = 0; i < playerCount; i++) {
@@ -62,7 +63,7 @@ public class PlayerSettings extends JDialog {
                 @Override
                 public void actionPerformed(ActionEvent e) {
                     String selectedColor = (String) colorDropdowns[playerIndex].getSelectedItem();
-                    Color newColor = getColorFromString(selectedColor);
+                    Color newColor = PlayerColors.get(selectedColor);
                     bobbleheads[playerIndex].setColor(newColor);
                     updateColorOptions(); // Update available colors for all players
                 }
@@ -81,7 +82,7 @@ public class PlayerSettings extends JDialog {
                 // Ensure final update of colors before saving
                 for (int i = 0; i < playerCount; i++) {
                     String selectedColor = (String) colorDropdowns[i].getSelectedItem();
-                    bobbleheads[i].setColor(getColorFromString(selectedColor));
+                    bobbleheads[i].setColor(PlayerColors.get(selectedColor));
                 }
                 saved = true;
                 dispose();
@@ -100,7 +101,7 @@ public class PlayerSettings extends JDialog {
     
     // This method updates each color drop-down to remove colors that are already chosen by other players.
     private void updateColorOptions() {
-        String[] allColors = {"Blue", "Red", "Green", "Orange", "Purple", "Black"};
+        String[] allColors = PlayerColors.NAMES;
         for (int i = 0; i < playerCount; i++) {
             DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
             // Collect colors taken by other players.
@@ -125,18 +126,6 @@ public class PlayerSettings extends JDialog {
         }
     }
     
-    private Color getColorFromString(String colorName) {
-        switch (colorName) {
-            case "Blue": return new Color(30, 144, 255);
-            case "Red": return new Color(220, 20, 60);
-            case "Green": return new Color(50, 205, 50);
-            case "Orange": return new Color(255, 165, 0);
-            case "Purple": return new Color(128, 0, 128);
-            case "Black": return new Color(30, 30, 30);
-            default: return Color.GRAY;
-        }
-    }
-    
     public boolean isSaved() {
         return saved;
     }
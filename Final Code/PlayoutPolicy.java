@@ -0,0 +1,103 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * The fast, allocation-free way simulated players take a turn (MCTS playouts, board balance):
+ * - Roll all six dice up to three times, stopping as soon as a square worth 2+ points is reachable
+ * - Place on the highest-point legal cell (random among equals), or, with some probability,
+ *   on any legal cell; given a GameState under ScoringRule.LINES, on the cell that adds most
+ *   to the player's runs (then the most points)
+ */
+public final class PlayoutPolicy {
+
+    // Square types worth 2+ points; a simulated turn stops rerolling once it can reach one
+    private static final int TWO_PLUS_POINT_TYPES = twoPlusPointTypes();
+
+    private PlayoutPolicy() {
+    }
+
+    /**
+     * Simulates the dice of one turn and fills legalOut (a board.newCellSet()) with the empty
+     * cells the player could take. Returns false if there are none. diceScratch is any int[6].
+     */
+    public static boolean rollTurn(BoardState board, RandomGenerator random, int[] diceScratch, long[] legalOut) {
+        // Decide on square types first; only the final roll's types are turned into cells
+        int open = board.getOpenTypes();
+        int types = 0;
+        for (int roll = 0; roll < RollADice.MAX_ROLLS; roll++) {
+            RollADice.fillDice(random, diceScratch, 63);
+            int key = PlacementTable.keyOf(diceScratch, 63);
+            types = DiceOutcomes.reachableTypes(DiceOutcomes.fullRollIndex(key)) & open;
+            if ((types & TWO_PLUS_POINT_TYPES) != 0) {
+                break;
+            }
+        }
+        return board.getOpenCellsOfTypes(types, legalOut);
+    }
+
+    /**
+     * Picks a cell from legal (not empty): any cell with probability randomness, else the most points.
+     */
+    public static int pickCell(BoardState board, long[] legal, RandomGenerator random, double randomness) {
+        if (randomness > 0 && random.nextDouble() < randomness) {
+            return CellBits.nth(legal, random.nextInt(CellBits.count(legal)));
+        }
+        // Greedy: most points, random among equals
+        int best = -1;
+        int bestPoints = -1;
+        int ties = 0;
+        for (int cell = CellBits.next(legal, 0); cell >= 0; cell = CellBits.next(legal, cell + 1)) {
+            int points = board.getSquareType(cell).getPoints();
+            if (points > bestPoints) {
+                bestPoints = points;
+                best = cell;
+                ties = 1;
+            } else if (points == bestPoints && random.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Same as pickCell(BoardState, ...), greedy by state's scoring rule: under LINES the most
+     * GameState.scoreGain for the player to move, the most points among equal gains.
+     */
+    public static int pickCell(GameState state, long[] legal, RandomGenerator random, double randomness) {
+        if (state.getRule() != ScoringRule.LINES) {
+            return pickCell(state.getBoard(), legal, random, randomness);
+        }
+        if (randomness > 0 && random.nextDouble() < randomness) {
+            return CellBits.nth(legal, random.nextInt(CellBits.count(legal)));
+        }
+        BoardState board = state.getBoard();
+        int best = -1;
+        int bestGain = -1;
+        int bestPoints = -1;
+        int ties = 0;
+        for (int cell = CellBits.next(legal, 0); cell >= 0; cell = CellBits.next(legal, cell + 1)) {
+            int gain = state.scoreGain(cell);
+            int points = board.getSquareType(cell).getPoints();
+            if (gain > bestGain || (gain == bestGain && points > bestPoints)) {
+                bestGain = gain;
+                bestPoints = points;
+                best = cell;
+                ties = 1;
+            } else if (gain == bestGain && points == bestPoints && random.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    // ---------------------- Helper Methods ----------------------
+
+    private static int twoPlusPointTypes() {
+        int types = 0;
+        for (SquareType type : SquareType.values()) {
+            if (type.getPoints() >= 2) {
+                types |= type.bit();
+            }
+        }
+        return types;
+    }
+}
@@ -1,25 +1,40 @@
-import java.util.Random;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
 
 /**
  * A helper class to manage all dice logic:
  * - Rolling up to 3 times
  * - Tracking which dice are selected
  * - Storing dice face values
+ *
+ * The dice source is any RandomGenerator (default: an unsynchronized L64X128MixRandom;
+ * use seeded(...) for reproducible games). Every roll takes one 64-bit draw for all
+ * the dice it rerolls, see fillDice.
  */
 public class RollADice {
-    private final int MAX_ROLLS = 3;
+    public static final int MAX_ROLLS = 3;
+    private static final int ALL_DICE = 63;
 
     private int[] diceValues; // Stores current face values (1-6) for 6 dice
     private boolean[] diceSelected;
     private int rollCount; // How many times we've rolled this turn
 
-    private Random random;
+    public static final String DEFAULT_ALGORITHM = "L64X128MixRandom";
+
+    private RandomGenerator random;
 
     public RollADice() {
+        this(RandomGenerator.of(DEFAULT_ALGORITHM));
+    }
+
+    /**
+     * Dice driven by the given generator (e.g. SplittableRandom, or seeded(...) for simulations).
+     */
+    public RollADice(RandomGenerator random) {
         diceValues = new int[6];
         diceSelected = new boolean[6];
         rollCount = 0;
-        random = new Random();
+        this.random = random;
     }
 
     /**
@@ -34,8 +49,8 @@ public class RollADice {
 
         if (rollCount == 0) {
             // First roll: roll all dice
+            fillDice(random, diceValues, ALL_DICE);
             for (int i = 0; i < 6; i++) {
-                diceValues[i] = random.nextInt(6) + 1; // [1..6]
                 diceSelected[i] = false;
             }
         } else {
@@ -49,23 +64,42 @@ public class RollADice {
             }
             if (!anySelected) {
                 // If no dice are selected, re-roll all
-                for (int i = 0; i < 6; i++) {
-                    diceValues[i] = random.nextInt(6) + 1;
-                    diceSelected[i] = false;
-                }
+                fillDice(random, diceValues, ALL_DICE);
             } else {
                 // Otherwise, only re-roll dice that are NOT selected
-                for (int i = 0; i < 6; i++) {
-                    if (!diceSelected[i]) {
-                        diceValues[i] = random.nextInt(6) + 1;
-                    }
-                }
+                fillDice(random, diceValues, ~getSelectionMask() & ALL_DICE);
             }
         }
 
         rollCount++;
     }
 
+    /**
+     * Takes a roll whose faces are already known (GameEngine rolls with its own generator, and
+     * replays saved games): the same bookkeeping as rollDice, with these six values.
+     */
+    public void applyRoll(int[] values) {
+        if (rollCount >= MAX_ROLLS) {
+            return;
+        }
+        System.arraycopy(values, 0, diceValues, 0, 6);
+        if (rollCount == 0) {
+            for (int i = 0; i < 6; i++) {
+                diceSelected[i] = false;
+            }
+        }
+        rollCount++;
+    }
+
+    /**
+     * Dice the next rollDice() would reroll (bit i = die i): all of them on the first roll
+     * or when none are kept, else the ones not selected.
+     */
+    public int getRerollMask() {
+        int kept = getSelectionMask();
+        return rollCount == 0 || kept == 0 ? ALL_DICE : ~kept & ALL_DICE;
+    }
+
     /**
      * Toggle whether a specific die is 'locked' (kept) or not.
      * Typically only meaningful after the first roll.
@@ -88,6 +122,39 @@ public class RollADice {
         }
     }
 
+    /**
+     * Rolls the dice whose bit is set in mask (bit i = die i), all from one 64-bit draw.
+     * The draw is read as a fraction in [0, 1): each die takes the next base-6 digit
+     * (multiply by 6, keep the integer part). The 6^6 = 46,656 outcomes of six dice split
+     * the 2^64 draws into runs whose lengths differ by at most one, so each outcome's
+     * probability is off by at most a factor of 46,656 / 2^64 (about 2^-48.5).
+     */
+    public static void fillDice(RandomGenerator random, int[] diceValues, int mask) {
+        long bits = random.nextLong();
+        for (int i = 0; i < diceValues.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                // Unsigned high word of bits * 6 (Math.multiplyHigh is signed)
+                long face = Math.multiplyHigh(bits, 6) + ((bits >> 63) & 6);
+                bits *= 6;
+                diceValues[i] = (int) face + 1; // [1..6]
+            }
+        }
+    }
+
+    /**
+     * A generator of the default algorithm with a fixed seed (same seed, same rolls).
+     */
+    public static RandomGenerator seeded(long seed) {
+        return seeded(DEFAULT_ALGORITHM, seed);
+    }
+
+    /**
+     * A seeded generator by algorithm name, e.g. "L64X128MixRandom", "SplittableRandom", "Xoshiro256PlusPlus".
+     */
+    public static RandomGenerator seeded(String algorithm, long seed) {
+        return RandomGeneratorFactory.of(algorithm).create(seed);
+    }
+
     // -------------------- Getters / Setters --------------------
 
     public int[] getDiceValues() {
@@ -98,6 +165,35 @@ public class RollADice {
         return diceSelected;
     }
 
+    /**
+     * Same as setDiceSelected, but from a bitmask (bit i = die i).
+     */
+    public void setSelectionMask(int mask) {
+        for (int i = 0; i < 6; i++) {
+            diceSelected[i] = (mask & (1 << i)) != 0;
+        }
+    }
+
+    /**
+     * The current selection packed as a bitmask (bit i = die i is selected).
+     */
+    public int getSelectionMask() {
+        int mask = 0;
+        for (int i = 0; i < 6; i++) {
+            if (diceSelected[i]) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * The selected dice encoded as a PlacementTable key (0 if none are selected).
+     */
+    public int getSelectedKey() {
+        return PlacementTable.keyOf(diceValues, getSelectionMask());
+    }
+
     public int getRollCount() {
         return rollCount;
     }
@@ -0,0 +1,44 @@
+/**
+ * How stones score, as listed in the Scoring drop-down:
+ * - SQUARES: each stone scores its square's points when it is placed
+ * - LINES: the rulebook scoring, runs of stones in a row or column score
+ *   (sum of their squares' points) x (run length), see LineScorer
+ */
+public enum ScoringRule {
+    SQUARES("Squares"),
+    LINES("Lines");
+
+    private final String label;
+
+    ScoringRule(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Labels in drop-down order.
+     */
+    public static String[] labels() {
+        ScoringRule[] values = values();
+        String[] labels = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            labels[i] = values[i].label;
+        }
+        return labels;
+    }
+
+    /**
+     * Looks up a rule by its drop-down label; unknown labels fall back to SQUARES.
+     */
+    public static ScoringRule fromLabel(String label) {
+        for (ScoringRule r : values()) {
+            if (r.label.equals(label)) {
+                return r;
+            }
+        }
+        return SQUARES;
+    }
+}
@@ -0,0 +1,226 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The square types on the board:
+ * - The label printed on the square (e.g. "AA/BB")
+ * - The points a stone on it is worth
+ * - The dice requirement, as a predicate over face counts
+ *
+ * The predicates only run while PlacementTable is built. After that a check is
+ * isSatisfiedBy(key), which is one table read plus an AND with bit().
+ */
+public enum SquareType {
+    TWO_PAIRS("AA/BB", 1) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return hasPairs(counts, 2);
+        }
+    },
+    THREE_OF_A_KIND("AAA", 1) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return hasAtLeastCount(counts, 3);
+        }
+    },
+    LITTLE_STRAIGHT("ABCD", 1) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return counts[1] > 0 && counts[2] > 0 && counts[3] > 0 && counts[4] > 0;
+        }
+    },
+    FULL_HOUSE("AAA/BB", 1) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return hasFullHouse(counts);
+        }
+    },
+    FOUR_OF_A_KIND("AAAA", 2) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return hasAtLeastCount(counts, 4);
+        }
+    },
+    LARGE_STRAIGHT("ABCDE", 2) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return counts[1] > 0 && counts[2] > 0 && counts[3] > 0
+                    && counts[4] > 0 && counts[5] > 0;
+        }
+    },
+    TWELVE_OR_FEWER("≤12", 2) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return sum <= 12;
+        }
+    },
+    THIRTY_OR_MORE("≥30", 2) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return sum >= 30;
+        }
+    },
+    ALL_ODD("=1,3,5", 2) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            // Must use all 6 dice and all values must be odd.
+            return size == 6 && counts[1] + counts[3] + counts[5] == 6;
+        }
+    },
+    ALL_EVEN("=2,4,6", 2) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            // Must use all 6 dice and all values must be even.
+            return size == 6 && counts[2] + counts[4] + counts[6] == 6;
+        }
+    },
+    THREE_PAIRS("AA/BB/CC", 3) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return hasPairs(counts, 3);
+        }
+    },
+    TWO_TRIPLETS("AAA/BBB", 3) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return hasTwoTriplets(counts);
+        }
+    },
+    FOUR_AND_PAIR("AAAA/BB", 3) {
+        @Override
+        boolean test(int[] counts, int size, int sum) {
+            return hasFourAndPair(counts);
+        }
+    };
+
+    private static final SquareType[] VALUES = values();
+    private static final Map<String, SquareType> BY_LABEL = new HashMap<>();
+
+    static {
+        for (SquareType type : VALUES) {
+            BY_LABEL.put(type.label, type);
+        }
+    }
+
+    private final String label;
+    private final int points;
+    private final int bit;
+
+    SquareType(String label, int points) {
+        this.label = label;
+        this.points = points;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * Checks the requirement against face counts (counts[1..6]),
+     * the number of dice and their sum.
+     */
+    abstract boolean test(int[] counts, int size, int sum);
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    // This type's bit in a PlacementTable mask
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * True if the dice encoded by diceKey (see PlacementTable) meet this requirement.
+     */
+    public boolean isSatisfiedBy(int diceKey) {
+        return (PlacementTable.typesFor(diceKey) & bit) != 0;
+    }
+
+    /**
+     * Type by ordinal, without the array copy values() makes.
+     */
+    public static SquareType byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * Looks up a type by its board label.
+     * Throws IllegalArgumentException for unknown labels.
+     */
+    public static SquareType fromLabel(String label) {
+        SquareType type = BY_LABEL.get(label);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown square type: " + label);
+        }
+        return type;
+    }
+
+    /**
+     * Converts a whole board layout of labels into types.
+     */
+    public static SquareType[] fromLabels(String[] labels) {
+        SquareType[] types = new SquareType[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            types[i] = fromLabel(labels[i]);
+        }
+        return types;
+    }
+
+    // ---------------------- Helper Methods ----------------------
+
+    private static boolean hasAtLeastCount(int[] counts, int needed) {
+        for (int i = 1; i <= 6; i++) {
+            if (counts[i] >= needed)
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean hasPairs(int[] counts, int pairsNeeded) {
+        int pairCount = 0;
+        for (int i = 1; i <= 6; i++) {
+            if (counts[i] >= 2)
+                pairCount++;
+        }
+        return pairCount >= pairsNeeded;
+    }
+
+    private static boolean hasFullHouse(int[] counts) {
+        boolean hasThree = false;
+        boolean hasPair = false;
+        for (int i = 1; i <= 6; i++) {
+            if (counts[i] >= 3)
+                hasThree = true;
+            else if (counts[i] >= 2)
+                hasPair = true;
+        }
+        return hasThree && hasPair;
+    }
+
+    private static boolean hasFourAndPair(int[] counts) {
+        boolean hasFour = false;
+        boolean hasPair = false;
+        for (int i = 1; i <= 6; i++) {
+            if (counts[i] >= 4)
+                hasFour = true;
+            else if (counts[i] >= 2)
+                hasPair = true;
+        }
+        return hasFour && hasPair;
+    }
+
+    private static boolean hasTwoTriplets(int[] counts) {
+        int tripletCount = 0;
+        for (int i = 1; i <= 6; i++) {
+            if (counts[i] >= 3)
+                tripletCount++;
+        }
+        return tripletCount >= 2;
+    }
+}
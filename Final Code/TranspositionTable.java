@@ -0,0 +1,155 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-size, lock-free transposition table for search statistics (visits and summed reward),
+ * keyed by ZobristHash hashes and shared by every search thread:
+ * - Open addressing over two long[] arrays, probing a bucket of 4 slots
+ * - Each slot stores (hash ^ data) next to data, so a torn or racing write just reads
+ *   as a miss instead of another position's stats (the "XOR trick")
+ * - Updates are a single CAS on the data word; a lost race drops that sample,
+ *   which is fine for statistics
+ * - Replacement: an empty slot, else one from an older search, else the one with fewest visits
+ *
+ * Data word layout: visits (24 bits) | reward sum in 1/256ths (32 bits) | search age (8 bits).
+ */
+public class TranspositionTable {
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int BUCKET = 4;
+    private static final int AGE_BITS = 8;
+    private static final int REWARD_BITS = 32;
+    private static final int VISIT_BITS = 24;
+    private static final long AGE_MASK = (1L << AGE_BITS) - 1;
+    private static final long REWARD_MASK = (1L << REWARD_BITS) - 1;
+    private static final long VISIT_MASK = (1L << VISIT_BITS) - 1;
+    private static final double REWARD_SCALE = 256.0;
+
+    private final long[] checks;
+    private final long[] data;
+    private final int mask;
+    private volatile int age = 0;
+
+    /**
+     * A table of 2^sizeBits slots (16 bytes each).
+     */
+    public TranspositionTable(int sizeBits) {
+        if (sizeBits < 2 || sizeBits > 28) {
+            throw new IllegalArgumentException("sizeBits must be between 2 and 28");
+        }
+        this.checks = new long[1 << sizeBits];
+        this.data = new long[1 << sizeBits];
+        this.mask = (1 << sizeBits) - 1;
+    }
+
+    /**
+     * Starts a new search: entries from earlier searches are kept but replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & (int) AGE_MASK;
+    }
+
+    /**
+     * Not thread-safe: only call while no search is running.
+     */
+    public void clear() {
+        java.util.Arrays.fill(checks, 0L);
+        java.util.Arrays.fill(data, 0L);
+    }
+
+    /**
+     * Data word stored for hash, or 0 if it is not in the table.
+     * Read it with visits(...) and averageReward(...).
+     */
+    public long probe(long hash) {
+        int base = index(hash);
+        for (int i = 0; i < BUCKET; i++) {
+            int slot = (base + i) & mask;
+            long d = (long) SLOTS.getVolatile(data, slot);
+            if (d != 0 && ((long) SLOTS.getVolatile(checks, slot) ^ d) == hash) {
+                return d;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Adds visits and their summed reward (each reward in [0, 1]) to the entry for hash.
+     */
+    public void add(long hash, int visits, double rewardSum) {
+        if (visits <= 0) {
+            return;
+        }
+        int base = index(hash);
+        int currentAge = age;
+        int victim = -1;
+        long victimData = 0;
+        long victimRank = Long.MAX_VALUE;
+        for (int i = 0; i < BUCKET; i++) {
+            int slot = (base + i) & mask;
+            long d = (long) SLOTS.getVolatile(data, slot);
+            if (d != 0 && ((long) SLOTS.getVolatile(checks, slot) ^ d) == hash) {
+                long updated = pack(visits(d) + (long) visits, rewardBits(d) + toBits(rewardSum), currentAge);
+                write(slot, hash, d, updated);
+                return;
+            }
+            long rank = rank(d, currentAge);
+            if (rank < victimRank) {
+                victimRank = rank;
+                victim = slot;
+                victimData = d;
+            }
+        }
+        write(victim, hash, victimData, pack(visits, toBits(rewardSum), currentAge));
+    }
+
+    // -------------------- Reading a data word --------------------
+
+    public static int visits(long entry) {
+        return (int) ((entry >>> (REWARD_BITS + AGE_BITS)) & VISIT_MASK);
+    }
+
+    public static double averageReward(long entry) {
+        int visits = visits(entry);
+        return visits == 0 ? 0 : rewardBits(entry) / REWARD_SCALE / visits;
+    }
+
+    // ---------------------- Helper Methods ----------------------
+
+    private int index(long hash) {
+        return (int) (hash >>> 32 ^ hash) & mask;
+    }
+
+    private void write(int slot, long hash, long expected, long updated) {
+        if (SLOTS.compareAndSet(data, slot, expected, updated)) {
+            SLOTS.setVolatile(checks, slot, hash ^ updated);
+        }
+    }
+
+    // Lower is replaced first: empty, then older searches, then fewer visits
+    private static long rank(long entry, int currentAge) {
+        if (entry == 0) {
+            return -1;
+        }
+        long sameSearch = (entry & AGE_MASK) == currentAge ? 1L << VISIT_BITS : 0;
+        return sameSearch + visits(entry);
+    }
+
+    private static long pack(long visits, long rewardBits, int age) {
+        // Halve both on overflow: keeps the average, forgets a little history
+        while (visits > VISIT_MASK || rewardBits > REWARD_MASK) {
+            visits >>>= 1;
+            rewardBits >>>= 1;
+        }
+        return visits << (REWARD_BITS + AGE_BITS) | rewardBits << AGE_BITS | (age & AGE_MASK);
+    }
+
+    private static long rewardBits(long entry) {
+        return (entry >>> AGE_BITS) & REWARD_MASK;
+    }
+
+    private static long toBits(double rewardSum) {
+        return Math.round(Math.max(0, rewardSum) * REWARD_SCALE);
+    }
+}
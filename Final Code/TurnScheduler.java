@@ -0,0 +1,136 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Paces CPU turns without a sleeping thread per game:
+ * - Steps are scheduled on one shared daemon ScheduledExecutorService and always run on the EDT
+ * - Heavy work (e.g. tree search) runs off the EDT and hands its result to an EDT step
+ * - pause() holds the pending step and resume() reschedules it with its remaining delay
+ * - cancel() drops every pending step and in-flight result (turn ended, timer expired, window closed)
+ *
+ * All methods must be called on the EDT.
+ */
+public class TurnScheduler {
+
+    private static final ScheduledExecutorService TIMER = Executors.newScheduledThreadPool(1, r -> {
+        Thread t = new Thread(r, "kivi-turn-scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Bumped by cancel(); steps from an older generation are ignored
+    private long generation = 0;
+    private boolean paused = false;
+
+    // The single step waiting to run (a CPU turn is a chain, so there is at most one)
+    private Runnable pendingStep;
+    private long pendingDueTime;
+    private ScheduledFuture<?> pendingFuture;
+    private long pausedRemaining;
+
+    /**
+     * Runs step on the EDT after delayMillis (not counting time spent paused).
+     * Replaces any step that is still waiting.
+     */
+    public void schedule(long delayMillis, Runnable step) {
+        cancelPendingFuture();
+        pendingStep = step;
+        if (paused) {
+            pausedRemaining = delayMillis;
+            return;
+        }
+        arm(delayMillis);
+    }
+
+    /**
+     * Runs work off the EDT, then passes its result to then on the EDT
+     * (after a resume, if the game is paused by then). Dropped if cancel() is called first.
+     * If work throws, onError gets the error instead (on the EDT, paced like then), so a
+     * chain of steps can carry on with a fallback.
+     */
+    public <T> void runInBackground(Supplier<T> work, Consumer<T> then, Consumer<Throwable> onError) {
+        java.util.Objects.requireNonNull(onError, "onError");
+        long expected = generation;
+        CompletableFuture.supplyAsync(work, ForkJoinPool.commonPool()).whenComplete((result, error) ->
+            javax.swing.SwingUtilities.invokeLater(() -> {
+                if (expected != generation) {
+                    return;
+                }
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    schedule(0, () -> onError.accept(cause));
+                    return;
+                }
+                schedule(0, () -> then.accept(result));
+            }));
+    }
+
+    public void pause() {
+        if (paused) {
+            return;
+        }
+        paused = true;
+        if (pendingStep != null) {
+            pausedRemaining = Math.max(0, pendingDueTime - System.currentTimeMillis());
+            cancelPendingFuture();
+        }
+    }
+
+    public void resume() {
+        if (!paused) {
+            return;
+        }
+        paused = false;
+        if (pendingStep != null) {
+            arm(pausedRemaining);
+        }
+    }
+
+    /**
+     * Drops the pending step and any background result still on its way.
+     */
+    public void cancel() {
+        generation++;
+        cancelPendingFuture();
+        pendingStep = null;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    // -------------------- Helpers --------------------
+
+    private void arm(long delayMillis) {
+        long expected = generation;
+        Runnable step = pendingStep;
+        pendingDueTime = System.currentTimeMillis() + delayMillis;
+        pendingFuture = TIMER.schedule(() -> javax.swing.SwingUtilities.invokeLater(() -> fire(expected, step)),
+                delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void fire(long expected, Runnable step) {
+        // Stale (cancelled or replaced), or paused after the timer fired: pause() kept it pending
+        if (expected != generation || step != pendingStep || paused) {
+            return;
+        }
+        pendingStep = null;
+        pendingFuture = null;
+        step.run();
+    }
+
+    private void cancelPendingFuture() {
+        if (pendingFuture != null) {
+            pendingFuture.cancel(false);
+            pendingFuture = null;
+        }
+    }
+}
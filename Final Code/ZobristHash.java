@@ -0,0 +1,117 @@
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for hashing a Kivi position:
+ * - One key per (player, cell) stone
+ * - One key per (face, count) of the dice histogram, so a dice multiset hashes
+ *   the same whatever order the dice are in
+ * - One key per roll count (RollADice: 0..MAX_ROLLS) and per player to move
+ *
+ * A hash is the XOR of the keys of everything present, so it can be updated one
+ * stone (or one die) at a time. Keys are fixed by the seed; tables only need to share
+ * a ZobristHash to agree on hashes.
+ */
+public class ZobristHash {
+
+    private final int cellCount;
+    private final long[] stoneKeys;                // [player * cellCount + cell]
+    private final long[] diceKeys = new long[7 * 7]; // [face * 7 + count], count 0 has no key
+    private final long[] rollKeys = new long[RollADice.MAX_ROLLS + 1];
+    private final long[] sideKeys;
+
+    public ZobristHash(int cellCount, int playerCount) {
+        this(cellCount, playerCount, 0x5DEECE66DL);
+    }
+
+    public ZobristHash(int cellCount, int playerCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.cellCount = cellCount;
+        this.stoneKeys = new long[cellCount * playerCount];
+        this.sideKeys = new long[playerCount];
+        fill(random, stoneKeys);
+        for (int face = 1; face <= 6; face++) {
+            for (int count = 1; count <= 6; count++) {
+                diceKeys[face * 7 + count] = nonZero(random);
+            }
+        }
+        fill(random, rollKeys);
+        fill(random, sideKeys);
+    }
+
+    /**
+     * Hash of the stones on the board and the player to move (no dice).
+     */
+    public long hash(GameState state) {
+        return hashBoard(state.getBoard()) ^ sideKeys[state.getCurrentPlayer()];
+    }
+
+    /**
+     * Hash of the stones only.
+     */
+    public long hashBoard(BoardState board) {
+        long h = 0;
+        for (int p = 0; p < board.getPlayerCount(); p++) {
+            long[] stones = board.getPlayerStones(p);
+            for (int cell = CellBits.next(stones, 0); cell >= 0; cell = CellBits.next(stones, cell + 1)) {
+                h ^= stone(p, cell);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Hash of a turn in progress: position, dice histogram and how many rolls were used.
+     */
+    public long hash(GameState state, int diceKey, int rollCount) {
+        return hash(state) ^ dice(diceKey) ^ roll(rollCount);
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getPlayerCount() {
+        return sideKeys.length;
+    }
+
+    // -------------------- Keys (XOR in to add, XOR again to remove) --------------------
+
+    public long stone(int player, int cell) {
+        return stoneKeys[player * cellCount + cell];
+    }
+
+    public long side(int player) {
+        return sideKeys[player];
+    }
+
+    public long roll(int rollCount) {
+        return rollKeys[rollCount];
+    }
+
+    /**
+     * Key of a dice histogram (PlacementTable key), independent of dice order.
+     */
+    public long dice(int diceKey) {
+        long h = 0;
+        for (int face = 1; face <= 6; face++) {
+            h ^= diceKeys[face * 7 + DiceOutcomes.count(diceKey, face)];
+        }
+        return h;
+    }
+
+    // ---------------------- Helper Methods ----------------------
+
+    private static void fill(SplittableRandom random, long[] keys) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = nonZero(random);
+        }
+    }
+
+    private static long nonZero(SplittableRandom random) {
+        long key;
+        do {
+            key = random.nextLong();
+        } while (key == 0);
+        return key;
+    }
+}